@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPoolTest extends AndroidTestCase {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 80, "http"));
+
+    public void testGetInstanceReturnsSharedPool() {
+        assertSame(ConnectionPool.getInstance(), ConnectionPool.getInstance());
+    }
+
+    public void testSchemeRegistrySupportsHttpAndHttps() {
+        final ConnectionPool pool = new ConnectionPool();
+
+        assertNotNull(pool.getSchemeRegistry().get("http"));
+        assertNotNull(pool.getSchemeRegistry().get("https"));
+
+        pool.shutdown();
+    }
+
+    public void testNewConnectionCountsAsMiss() throws Exception {
+        final ConnectionPool pool = new ConnectionPool(2, 1, ConnectionPool.Limits.IDLE_TIMEOUT);
+        final ClientConnectionRequest request = pool.requestConnection(ROUTE, null);
+        final ManagedClientConnection connection = request.getConnection(1, TimeUnit.SECONDS);
+
+        assertEquals(0, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+
+        pool.releaseConnection(connection, 0, TimeUnit.MILLISECONDS);
+        pool.shutdown();
+    }
+
+    public void testIdleTimeout() {
+        final ConnectionPool pool = new ConnectionPool(2, 1, 1234);
+
+        assertEquals(1234, pool.getIdleTimeout());
+
+        pool.shutdown();
+    }
+}
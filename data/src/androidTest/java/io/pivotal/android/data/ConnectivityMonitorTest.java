@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.test.AndroidTestCase;
+
+import org.mockito.Mockito;
+
+public class ConnectivityMonitorTest extends AndroidTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testFirstQuerySeedsState() {
+        final Context context = Mockito.mock(Context.class);
+        final ConnectivityManager manager = Mockito.mock(ConnectivityManager.class);
+        final NetworkInfo networkInfo = Mockito.mock(NetworkInfo.class);
+        final ConnectivityMonitor monitor = new ConnectivityMonitor();
+
+        Mockito.when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        Mockito.when(manager.getActiveNetworkInfo()).thenReturn(networkInfo);
+        Mockito.when(networkInfo.isConnected()).thenReturn(true);
+        Mockito.when(networkInfo.getType()).thenReturn(ConnectivityManager.TYPE_WIFI);
+
+        monitor.setTracking(true);
+
+        assertTrue(monitor.isConnected(context));
+        assertEquals(ConnectivityManager.TYPE_WIFI, monitor.getNetworkType(context));
+        assertTrue(monitor.isConnected(context));
+
+        Mockito.verify(context, Mockito.times(1)).getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    public void testTrackedStateDoesNotQueryConnectivityManager() {
+        final Context context = Mockito.mock(Context.class);
+        final ConnectivityMonitor monitor = new ConnectivityMonitor();
+
+        monitor.setState(new ConnectivityMonitor.State(true, ConnectivityManager.TYPE_MOBILE, true));
+        monitor.setTracking(true);
+
+        assertTrue(monitor.isConnected(context));
+        assertTrue(monitor.isMetered(context));
+        assertEquals(ConnectivityManager.TYPE_MOBILE, monitor.getNetworkType(context));
+
+        Mockito.verifyZeroInteractions(context);
+    }
+
+    public void testUntrackedStateQueriesConnectivityManager() {
+        final Context context = Mockito.mock(Context.class);
+        final ConnectivityManager manager = Mockito.mock(ConnectivityManager.class);
+        final ConnectivityMonitor monitor = new ConnectivityMonitor();
+
+        Mockito.when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        Mockito.when(manager.getActiveNetworkInfo()).thenReturn(null);
+
+        monitor.setState(new ConnectivityMonitor.State(true, ConnectivityManager.TYPE_WIFI, false));
+        monitor.setTracking(false);
+
+        assertFalse(monitor.isConnected(context));
+        assertEquals(Connectivity.TYPE_NONE, monitor.getNetworkType(context));
+
+        Mockito.verify(manager, Mockito.times(2)).getActiveNetworkInfo();
+    }
+
+    public void testNewMonitorDoesNotTrustCachedStateUntilTracking() {
+        final Context context = Mockito.mock(Context.class);
+        final ConnectivityManager manager = Mockito.mock(ConnectivityManager.class);
+        final ConnectivityMonitor monitor = new ConnectivityMonitor();
+
+        Mockito.when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        Mockito.when(manager.getActiveNetworkInfo()).thenReturn(null);
+
+        monitor.setState(new ConnectivityMonitor.State(true, ConnectivityManager.TYPE_WIFI, false));
+
+        assertFalse(monitor.isTracking());
+        assertFalse(monitor.isConnected(context));
+        assertFalse(monitor.isConnected(context));
+
+        Mockito.verify(manager, Mockito.times(2)).getActiveNetworkInfo();
+    }
+
+    public void testUpdateReplacesState() {
+        final Context context = Mockito.mock(Context.class);
+        final ConnectivityManager manager = Mockito.mock(ConnectivityManager.class);
+        final ConnectivityMonitor monitor = new ConnectivityMonitor();
+
+        Mockito.when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        Mockito.when(manager.getActiveNetworkInfo()).thenReturn(null);
+
+        monitor.setState(new ConnectivityMonitor.State(true, ConnectivityManager.TYPE_WIFI, false));
+
+        assertFalse(monitor.update(context).isConnected());
+        assertFalse(monitor.isConnected(context));
+    }
+}
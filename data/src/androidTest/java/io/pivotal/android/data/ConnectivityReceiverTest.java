@@ -107,4 +107,32 @@ public class ConnectivityReceiverTest extends AndroidTestCase {
         Mockito.verify(networkInfo).isConnected();
         Mockito.verify(connectivityListener, Mockito.never()).onNetworkStatusChanged(Mockito.eq(context), Mockito.anyBoolean());
     }
+
+    public void testOnReceiveUpdatesConnectivityMonitorWithoutListener() {
+        final Context context = Mockito.mock(Context.class);
+        final ConnectivityManager connManager = Mockito.mock(ConnectivityManager.class);
+
+        Mockito.when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(connManager);
+        Mockito.when(connManager.getActiveNetworkInfo()).thenReturn(null);
+
+        ConnectivityMonitor.getInstance().setState(new ConnectivityMonitor.State(true, ConnectivityManager.TYPE_WIFI, false));
+        ConnectivityReceiver.setConnectivityListener(null);
+        new ConnectivityReceiver().onReceive(context, null);
+
+        assertFalse(ConnectivityMonitor.getInstance().getState(context).isConnected());
+    }
+
+    public void testOnReceiveStartsTracking() {
+        final Context context = Mockito.mock(Context.class);
+        final ConnectivityManager connManager = Mockito.mock(ConnectivityManager.class);
+
+        Mockito.when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(connManager);
+        Mockito.when(connManager.getActiveNetworkInfo()).thenReturn(null);
+
+        ConnectivityMonitor.getInstance().setTracking(false);
+        ConnectivityReceiver.setConnectivityListener(null);
+        new ConnectivityReceiver().onReceive(context, null);
+
+        assertTrue(ConnectivityMonitor.getInstance().isTracking());
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import java.util.UUID;
+
+public class DataMapperTest extends AndroidTestCase {
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+    private static final String FALLBACK = UUID.randomUUID().toString();
+
+    public void testGetInstanceReturnsSharedMapper() {
+        assertSame(DataMapper.getInstance(), DataMapper.getInstance());
+        assertSame(DataMapper.getInstance().getRequestReader(), DataMapper.getInstance().getRequestReader());
+        assertSame(DataMapper.getInstance().getRequestWriter(), DataMapper.getInstance().getRequestWriter());
+    }
+
+    public void testRequestRoundTripKeepsObjectTypes() throws Exception {
+        final DataMapper mapper = DataMapper.getInstance();
+        final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>(new Request.Put<KeyValue>(
+                new KeyValue(COLLECTION, KEY, VALUE), new KeyValue(COLLECTION, KEY, FALLBACK), true));
+
+        final byte[] serialized = mapper.getRequestWriter().writeValueAsBytes(request);
+        final PendingRequest<KeyValue> deserialized = mapper.getRequestReader().readValue(serialized);
+
+        assertEquals(Request.Methods.PUT, deserialized.method);
+        assertTrue(deserialized.force);
+        assertEquals(VALUE, deserialized.object.value);
+        assertEquals(FALLBACK, deserialized.fallback.value);
+        assertEquals(COLLECTION, deserialized.object.collection);
+    }
+
+    public void testRequestListRoundTrip() throws Exception {
+        final DataMapper mapper = DataMapper.getInstance();
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(new PendingRequest<KeyValue>(new Request.Get<KeyValue>(new KeyValue(COLLECTION, KEY, VALUE))));
+        list.add(new PendingRequest<KeyValue>(new Request.Delete<KeyValue>(new KeyValue(COLLECTION, KEY, null))));
+
+        final String serialized = mapper.getRequestListWriter().writeValueAsString(list);
+        final PendingRequest.List<KeyValue> deserialized = mapper.getRequestListReader().readValue(serialized);
+
+        assertEquals(2, deserialized.size());
+        assertEquals(Request.Methods.GET, deserialized.get(0).method);
+        assertEquals(VALUE, deserialized.get(0).object.value);
+        assertEquals(Request.Methods.DELETE, deserialized.get(1).method);
+        assertEquals(KEY, deserialized.get(1).object.key);
+    }
+}
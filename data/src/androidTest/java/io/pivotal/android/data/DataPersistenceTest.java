@@ -10,6 +10,8 @@ import android.test.AndroidTestCase;
 
 import org.mockito.Mockito;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 @SuppressLint("CommitPrefEdits")
@@ -92,4 +94,172 @@ public class DataPersistenceTest extends AndroidTestCase {
         Mockito.verify(context).getSharedPreferences(NAME, Context.MODE_PRIVATE);
         Mockito.verify(editor).clear();
     }
-}
\ No newline at end of file
+
+    public void testBatchedPutIsVisibleBeforeFlush() {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+        final SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.edit()).thenReturn(editor);
+
+        final DataPersistence persistence = new DataPersistence(context, NAME, DataPersistence.Modes.BATCHED);
+
+        assertEquals(VALUE, persistence.putString(KEY, VALUE));
+        assertEquals(VALUE, persistence.getString(KEY));
+
+        Mockito.verify(preferences, Mockito.never()).edit();
+        Mockito.verify(preferences, Mockito.never()).getString(Mockito.anyString(), Mockito.anyString());
+    }
+
+    public void testBatchedDeleteIsVisibleBeforeFlush() {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.getString(Mockito.anyString(), Mockito.anyString())).thenReturn(VALUE);
+
+        final DataPersistence persistence = new DataPersistence(context, NAME, DataPersistence.Modes.BATCHED);
+
+        assertEquals(EMPTY, persistence.deleteString(KEY));
+        assertEquals(EMPTY, persistence.getString(KEY));
+
+        Mockito.verify(preferences, Mockito.never()).edit();
+    }
+
+    public void testFlushCommitsAllBatchedWritesAtOnce() {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+        final SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.edit()).thenReturn(editor);
+        Mockito.when(editor.commit()).thenReturn(true);
+
+        final DataPersistence persistence = new DataPersistence(context, NAME, DataPersistence.Modes.BATCHED);
+
+        persistence.putString(KEY, VALUE);
+        persistence.putString(VALUE, KEY);
+        persistence.deleteString(NAME);
+        persistence.flush();
+
+        Mockito.verify(preferences, Mockito.times(1)).edit();
+        Mockito.verify(editor).putString(KEY, VALUE);
+        Mockito.verify(editor).putString(VALUE, KEY);
+        Mockito.verify(editor).remove(NAME);
+        Mockito.verify(editor, Mockito.times(1)).commit();
+    }
+
+    public void testBatchedWritesFlushWhenSizeThresholdIsReached() {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+        final SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.edit()).thenReturn(editor);
+
+        final DataPersistence persistence = new DataPersistence(context, NAME, DataPersistence.Modes.BATCHED);
+
+        for (int i = 0; i < WriteBatch.MAX_SIZE; i++) {
+            persistence.putString(KEY + i, VALUE);
+        }
+
+        Mockito.verify(editor, Mockito.times(1)).commit();
+    }
+
+    public void testDurableWriteFlushesPendingBatchedWrites() {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+        final SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.edit()).thenReturn(editor);
+
+        final DataPersistence batched = new DataPersistence(context, NAME, DataPersistence.Modes.BATCHED);
+        final DataPersistence durable = new DataPersistence(context, NAME, DataPersistence.Modes.DURABLE);
+
+        batched.putString(KEY, VALUE);
+        durable.putString(VALUE, KEY);
+
+        Mockito.verify(editor).putString(KEY, VALUE);
+        Mockito.verify(editor).putString(VALUE, KEY);
+        Mockito.verify(editor, Mockito.times(1)).commit();
+    }
+
+    public void testTransactionCommitsDurableWritesOnce() {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+        final SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.edit()).thenReturn(editor);
+        Mockito.when(editor.commit()).thenReturn(true);
+
+        final DataPersistence persistence = new DataPersistence(context, NAME, DataPersistence.Modes.DURABLE);
+
+        persistence.beginTransaction();
+        persistence.putString(KEY, VALUE);
+        persistence.deleteString(NAME);
+
+        Mockito.verify(preferences, Mockito.never()).edit();
+
+        persistence.endTransaction();
+
+        Mockito.verify(preferences, Mockito.times(1)).edit();
+        Mockito.verify(editor).putString(KEY, VALUE);
+        Mockito.verify(editor).remove(NAME);
+        Mockito.verify(editor, Mockito.times(1)).commit();
+    }
+
+    public void testTransactionDoesNotDeferDurableWritesFromOtherThreads() throws Exception {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+        final SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.edit()).thenReturn(editor);
+        Mockito.when(editor.commit()).thenReturn(true);
+
+        final DataPersistence persistence = new DataPersistence(context, NAME, DataPersistence.Modes.DURABLE);
+
+        persistence.beginTransaction();
+
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                persistence.putString(KEY, VALUE);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Mockito.verify(editor).putString(KEY, VALUE);
+        Mockito.verify(editor, Mockito.times(1)).commit();
+
+        persistence.endTransaction();
+    }
+
+    public void testGetAllMergesPendingWrites() {
+        final Context context = Mockito.mock(Context.class);
+        final SharedPreferences preferences = Mockito.mock(SharedPreferences.class);
+        final Map stored = new HashMap();
+
+        stored.put(KEY, VALUE);
+        stored.put(NAME, VALUE);
+
+        Mockito.when(context.getSharedPreferences(Mockito.anyString(), Mockito.anyInt())).thenReturn(preferences);
+        Mockito.when(preferences.getAll()).thenReturn(stored);
+
+        final DataPersistence persistence = new DataPersistence(context, NAME, DataPersistence.Modes.BATCHED);
+
+        persistence.deleteString(NAME);
+        persistence.putString(VALUE, KEY);
+
+        final Map<String, String> all = persistence.getAll();
+
+        assertEquals(2, all.size());
+        assertEquals(VALUE, all.get(KEY));
+        assertEquals(KEY, all.get(VALUE));
+        assertFalse(all.containsKey(NAME));
+    }
+}
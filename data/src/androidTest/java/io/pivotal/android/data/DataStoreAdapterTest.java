@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@SuppressWarnings("unchecked")
+public class DataStoreAdapterTest extends AndroidTestCase {
+
+    public static interface PlainDataStore extends DataStore<KeyValue> {}
+    public static interface ExtendedKeyValueDataStore extends ExtendedDataStore<KeyValue> {}
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY = UUID.randomUUID().toString();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testExtendReturnsExtendedStoresAsIs() {
+        final ExtendedDataStore<KeyValue> dataStore = Mockito.mock(ExtendedKeyValueDataStore.class);
+
+        assertSame(dataStore, DataStoreAdapter.extend(dataStore));
+    }
+
+    public void testExecuteAllExecutesEachRequest() {
+        final PlainDataStore dataStore = Mockito.mock(PlainDataStore.class);
+        final Request<KeyValue> request1 = new Request<KeyValue>(Request.Methods.GET, new KeyValue(COLLECTION, "1", null), false);
+        final Request<KeyValue> request2 = new Request<KeyValue>(Request.Methods.GET, new KeyValue(COLLECTION, "2", null), false);
+        final Response<KeyValue> response1 = new Response<KeyValue>(request1.object);
+        final Response<KeyValue> response2 = new Response<KeyValue>(request2.object);
+
+        Mockito.when(dataStore.execute(request1)).thenReturn(response1);
+        Mockito.when(dataStore.execute(request2)).thenReturn(response2);
+
+        final List<Response<KeyValue>> responses = DataStoreAdapter.extend(dataStore).executeAll(Arrays.asList(request1, request2));
+
+        assertEquals(Arrays.asList(response1, response2), responses);
+    }
+
+    public void testKeyObserverOnlyReceivesMatchingResponses() {
+        final PlainDataStore dataStore = Mockito.mock(PlainDataStore.class);
+        final DataStore.Observer<KeyValue> observer = Mockito.mock(DataStore.Observer.class);
+        final ArgumentCaptor<DataStore.Observer> captor = ArgumentCaptor.forClass(DataStore.Observer.class);
+        final Response<KeyValue> match = new Response<KeyValue>(new KeyValue(COLLECTION, KEY, null));
+        final Response<KeyValue> other = new Response<KeyValue>(new KeyValue(COLLECTION, "other", null));
+
+        Mockito.when(dataStore.addObserver(captor.capture())).thenReturn(true);
+
+        assertTrue(DataStoreAdapter.extend(dataStore).addObserver(observer, COLLECTION, KEY));
+
+        captor.getValue().onResponse(match);
+        captor.getValue().onResponse(other);
+
+        Mockito.verify(observer).onResponse(match);
+        Mockito.verify(observer, Mockito.never()).onResponse(other);
+    }
+
+    public void testRemoveKeyObserverRemovesRegisteredWrapper() {
+        final PlainDataStore dataStore = Mockito.mock(PlainDataStore.class);
+        final DataStore.Observer<KeyValue> observer = Mockito.mock(DataStore.Observer.class);
+        final ArgumentCaptor<DataStore.Observer> added = ArgumentCaptor.forClass(DataStore.Observer.class);
+        final ArgumentCaptor<DataStore.Observer> removed = ArgumentCaptor.forClass(DataStore.Observer.class);
+
+        Mockito.when(dataStore.addObserver(added.capture())).thenReturn(true);
+        Mockito.when(dataStore.removeObserver(removed.capture())).thenReturn(true);
+
+        DataStoreAdapter.extend(dataStore).addObserver(observer, COLLECTION, KEY);
+        DataStoreAdapter.extend(dataStore).removeObserver(observer, COLLECTION, KEY);
+
+        assertEquals(added.getValue(), removed.getValue());
+        assertEquals(added.getValue().hashCode(), removed.getValue().hashCode());
+    }
+}
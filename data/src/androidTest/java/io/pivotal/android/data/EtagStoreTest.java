@@ -5,8 +5,11 @@ package io.pivotal.android.data;
 
 import android.test.AndroidTestCase;
 
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 public class EtagStoreTest extends AndroidTestCase {
@@ -20,25 +23,134 @@ public class EtagStoreTest extends AndroidTestCase {
         System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
     }
 
-    public void testGetInvokesPersistence() {
+    public void testGetLoadsIndexFromPersistenceOnce() {
         final DataPersistence persistence = Mockito.mock(DataPersistence.class);
         final EtagStore store = new EtagStore(persistence);
+        final Map<String, String> stored = new HashMap<String, String>();
 
-        Mockito.when(persistence.getString(Mockito.anyString())).thenReturn(VALUE);
+        stored.put(KEY, VALUE);
+        Mockito.when(persistence.getAll()).thenReturn(stored);
 
         assertEquals(VALUE, store.get(KEY));
+        assertEquals("", store.get(VALUE));
 
-        Mockito.verify(persistence).getString(KEY);
+        Mockito.verify(persistence, Mockito.times(1)).getAll();
+        Mockito.verify(persistence, Mockito.never()).getString(KEY);
     }
 
     public void testPutInvokesPersistence() {
         final DataPersistence persistence = Mockito.mock(DataPersistence.class);
         final EtagStore store = new EtagStore(persistence);
 
-        Mockito.when(persistence.putString(Mockito.anyString(), Mockito.anyString())).thenReturn(VALUE);
-
         assertEquals(VALUE, store.put(KEY, VALUE));
+        assertEquals(VALUE, store.get(KEY));
 
         Mockito.verify(persistence).putString(KEY, VALUE);
     }
-}
\ No newline at end of file
+
+    public void testPutSkipsUnchangedEtag() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence);
+
+        store.put(KEY, VALUE);
+        store.put(KEY, VALUE);
+
+        Mockito.verify(persistence, Mockito.times(1)).putString(KEY, VALUE);
+    }
+
+    public void testPutEmptyEtagRemovesEntry() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence);
+
+        store.put(KEY, VALUE);
+
+        assertEquals("", store.put(KEY, ""));
+        assertEquals("", store.get(KEY));
+        assertEquals(0, store.size());
+
+        Mockito.verify(persistence).deleteString(KEY);
+        Mockito.verify(persistence, Mockito.never()).putString(KEY, "");
+    }
+
+    public void testPutEmptyEtagForUnknownUrlDoesNotWrite() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence);
+
+        store.put(KEY, "");
+
+        Mockito.verify(persistence, Mockito.never()).deleteString(Mockito.anyString());
+        Mockito.verify(persistence, Mockito.never()).putString(Mockito.anyString(), Mockito.anyString());
+    }
+
+    public void testLeastRecentlyUsedEntryIsEvictedFromMemoryOnly() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence, 2);
+
+        store.put("a", VALUE);
+        store.put("b", VALUE);
+        store.get("a");
+        store.put("c", VALUE);
+
+        assertEquals(2, store.size());
+        Mockito.verify(persistence, Mockito.never()).deleteString(Mockito.anyString());
+    }
+
+    public void testEvictedEntryIsReadBackFromPersistence() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence, 1);
+
+        store.put("a", VALUE);
+        store.put("b", VALUE);
+
+        Mockito.when(persistence.getString("a")).thenReturn(VALUE);
+
+        assertEquals(VALUE, store.get("a"));
+        assertEquals(1, store.size());
+    }
+
+    public void testLoadTrimsOversizedIndex() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence, 2);
+        final Map<String, String> stored = new HashMap<String, String>();
+
+        stored.put("a", VALUE);
+        stored.put("b", VALUE);
+        stored.put("c", VALUE);
+        stored.put("d", "");
+        Mockito.when(persistence.getAll()).thenReturn(stored);
+
+        assertEquals(2, store.size());
+
+        Mockito.verify(persistence, Mockito.times(1)).deleteString(Mockito.anyString());
+        Mockito.verify(persistence).deleteString("d");
+    }
+
+    public void testLoadRemovesEmptyEntriesInOneTransaction() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence);
+        final Map<String, String> stored = new HashMap<String, String>();
+
+        stored.put("a", "");
+        stored.put("b", "");
+        stored.put("c", VALUE);
+        Mockito.when(persistence.getAll()).thenReturn(stored);
+
+        assertEquals(1, store.size());
+
+        final InOrder order = Mockito.inOrder(persistence);
+        order.verify(persistence).beginTransaction();
+        order.verify(persistence, Mockito.times(2)).deleteString(Mockito.anyString());
+        order.verify(persistence).endTransaction();
+    }
+
+    public void testClearResetsIndexAndPersistence() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore store = new EtagStore(persistence);
+
+        store.put(KEY, VALUE);
+        store.clear();
+
+        assertEquals("", store.get(KEY));
+        Mockito.verify(persistence).clear();
+    }
+}
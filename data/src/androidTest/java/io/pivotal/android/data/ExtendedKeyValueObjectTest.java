@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.mockito.Mockito;
+
+import java.util.UUID;
+
+@SuppressWarnings("unchecked")
+public class ExtendedKeyValueObjectTest extends AndroidTestCase {
+
+    public static interface ExtendedKeyValueDataStore extends ExtendedDataStore<KeyValue> {}
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testSubmitGetInvokesDataStore() {
+        final ExtendedKeyValueDataStore dataStore = Mockito.mock(ExtendedKeyValueDataStore.class);
+        final Request<KeyValue> request = Mockito.mock(KeyValueObjectTest.KeyValueRequest.class);
+        final RequestFuture<KeyValue> future = new RequestFuture<KeyValue>(dataStore, request);
+        final KeyValueObject keyValueObject = Mockito.spy(new KeyValueObject(dataStore, COLLECTION, KEY));
+
+        Mockito.stub(keyValueObject.createRequest(Mockito.anyInt(), Mockito.anyString())).toReturn(request);
+        Mockito.when(dataStore.submit(request)).thenReturn(future);
+
+        assertEquals(future, keyValueObject.submitGet());
+
+        Mockito.verify(keyValueObject).createRequest(Request.Methods.GET, null);
+        Mockito.verify(dataStore).submit(request);
+    }
+
+    public void testSubmitPutInvokesDataStore() {
+        final ExtendedKeyValueDataStore dataStore = Mockito.mock(ExtendedKeyValueDataStore.class);
+        final Request<KeyValue> request = Mockito.mock(KeyValueObjectTest.KeyValueRequest.class);
+        final RequestFuture<KeyValue> future = new RequestFuture<KeyValue>(dataStore, request);
+        final KeyValueObject keyValueObject = Mockito.spy(new KeyValueObject(dataStore, COLLECTION, KEY));
+
+        Mockito.stub(keyValueObject.createRequest(Mockito.anyInt(), Mockito.anyString())).toReturn(request);
+        Mockito.when(dataStore.submit(request)).thenReturn(future);
+
+        assertEquals(future, keyValueObject.submitPut(VALUE));
+
+        Mockito.verify(keyValueObject).createRequest(Request.Methods.PUT, VALUE);
+        Mockito.verify(dataStore).submit(request);
+    }
+
+    public void testSubmitDeleteInvokesDataStore() {
+        final ExtendedKeyValueDataStore dataStore = Mockito.mock(ExtendedKeyValueDataStore.class);
+        final Request<KeyValue> request = Mockito.mock(KeyValueObjectTest.KeyValueRequest.class);
+        final RequestFuture<KeyValue> future = new RequestFuture<KeyValue>(dataStore, request);
+        final KeyValueObject keyValueObject = Mockito.spy(new KeyValueObject(dataStore, COLLECTION, KEY));
+
+        Mockito.stub(keyValueObject.createRequest(Mockito.anyInt(), Mockito.anyString())).toReturn(request);
+        Mockito.when(dataStore.submit(request)).thenReturn(future);
+
+        assertEquals(future, keyValueObject.submitDelete());
+
+        Mockito.verify(keyValueObject).createRequest(Request.Methods.DELETE, null);
+        Mockito.verify(dataStore).submit(request);
+    }
+
+    public void testAddKeyObserverSubscribesToKey() {
+        final ExtendedKeyValueDataStore dataStore = Mockito.mock(ExtendedKeyValueDataStore.class);
+        final KeyValueObject keyValueObject = new KeyValueObject(dataStore, COLLECTION, KEY);
+        final DataStore.Observer<KeyValue> observer = Mockito.mock(KeyValueObjectTest.KeyValueObserver.class);
+
+        Mockito.when(dataStore.addObserver(observer, COLLECTION, KEY)).thenReturn(true);
+
+        assertTrue(keyValueObject.addKeyObserver(observer));
+
+        Mockito.verify(dataStore).addObserver(observer, COLLECTION, KEY);
+    }
+
+    public void testRemoveKeyObserverUnsubscribesFromKey() {
+        final ExtendedKeyValueDataStore dataStore = Mockito.mock(ExtendedKeyValueDataStore.class);
+        final KeyValueObject keyValueObject = new KeyValueObject(dataStore, COLLECTION, KEY);
+        final DataStore.Observer<KeyValue> observer = Mockito.mock(KeyValueObjectTest.KeyValueObserver.class);
+
+        Mockito.when(dataStore.removeObserver(observer, COLLECTION, KEY)).thenReturn(true);
+
+        assertTrue(keyValueObject.removeKeyObserver(observer));
+
+        Mockito.verify(dataStore).removeObserver(observer, COLLECTION, KEY);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@SuppressWarnings("unchecked")
+public class KeyValueCollectionTest extends AndroidTestCase {
+
+    public static interface KeyValueDataStore extends ExtendedDataStore<KeyValue> {}
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY1 = UUID.randomUUID().toString();
+    private static final String KEY2 = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testGetExecutesOneBatchAndMapsResponsesByKey() {
+        final KeyValueDataStore dataStore = Mockito.mock(KeyValueDataStore.class);
+        final KeyValueCollection collection = new KeyValueCollection(dataStore, COLLECTION);
+        final Response<KeyValue> response1 = new Response<KeyValue>(new KeyValue(COLLECTION, KEY1, VALUE));
+        final Response<KeyValue> response2 = new Response<KeyValue>(new KeyValue(COLLECTION, KEY2, VALUE));
+        final ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+
+        Mockito.when(dataStore.executeAll(Mockito.anyList())).thenReturn(Arrays.asList(response1, response2));
+
+        final Map<String, Response<KeyValue>> responses = collection.get(Arrays.asList(KEY1, KEY2));
+
+        assertEquals(2, responses.size());
+        assertEquals(response1, responses.get(KEY1));
+        assertEquals(response2, responses.get(KEY2));
+
+        Mockito.verify(dataStore).executeAll(captor.capture());
+
+        final List<Request<KeyValue>> requests = captor.getValue();
+        assertEquals(Request.Methods.GET, requests.get(0).method);
+        assertEquals(COLLECTION, requests.get(0).object.collection);
+        assertEquals(KEY1, requests.get(0).object.key);
+        assertEquals(KEY2, requests.get(1).object.key);
+    }
+
+    public void testPutCreatesPutRequestsWithValues() {
+        final KeyValueDataStore dataStore = Mockito.mock(KeyValueDataStore.class);
+        final KeyValueCollection collection = new KeyValueCollection(dataStore, COLLECTION);
+        final Map<String, String> values = new LinkedHashMap<String, String>();
+        final ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+
+        values.put(KEY1, VALUE);
+        values.put(KEY2, null);
+
+        Mockito.when(dataStore.executeAll(Mockito.anyList())).thenReturn(Arrays.asList(new Response<KeyValue>(), new Response<KeyValue>()));
+
+        collection.setShouldForceRequest(true);
+        collection.put(values);
+
+        Mockito.verify(dataStore).executeAll(captor.capture());
+
+        final List<Request<KeyValue>> requests = captor.getValue();
+        assertEquals(Request.Methods.PUT, requests.get(0).method);
+        assertEquals(VALUE, requests.get(0).object.value);
+        assertNull(requests.get(1).object.value);
+        assertTrue(requests.get(0).force);
+    }
+
+    public void testDeleteCreatesDeleteRequests() {
+        final KeyValueDataStore dataStore = Mockito.mock(KeyValueDataStore.class);
+        final KeyValueCollection collection = new KeyValueCollection(dataStore, COLLECTION);
+        final ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+
+        Mockito.when(dataStore.executeAll(Mockito.anyList())).thenReturn(Arrays.asList(new Response<KeyValue>()));
+
+        final Map<String, Response<KeyValue>> responses = collection.delete(Arrays.asList(KEY1));
+
+        assertTrue(responses.containsKey(KEY1));
+
+        Mockito.verify(dataStore).executeAll(captor.capture());
+        assertEquals(Request.Methods.DELETE, ((Request<KeyValue>) captor.getValue().get(0)).method);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+public class KeyValueDatabaseStoreTest extends AndroidTestCase {
+
+    public static class KeyValueObserverHandler extends ObserverHandler<KeyValue> {}
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testGetInvokesDatabase() {
+        final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
+        final KeyValueDatabase database = Mockito.mock(KeyValueDatabase.class);
+        final Request<KeyValue> request = new Request.Get<KeyValue>(new KeyValue(COLLECTION, KEY, null), false);
+        final KeyValueDatabaseStore store = new KeyValueDatabaseStore(observerHandler, database);
+
+        Mockito.when(database.getString(Mockito.anyString(), Mockito.anyString())).thenReturn(VALUE);
+
+        final Response<KeyValue> response = store.execute(request);
+
+        assertTrue(response.isSuccess());
+        assertEquals(KEY, response.object.key);
+        assertEquals(VALUE, response.object.value);
+
+        Mockito.verify(database).getString(COLLECTION, KEY);
+        Mockito.verify(observerHandler).notifyResponse(response);
+    }
+
+    public void testPutInvokesDatabase() {
+        final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
+        final KeyValueDatabase database = Mockito.mock(KeyValueDatabase.class);
+        final Request<KeyValue> request = new Request.Put<KeyValue>(new KeyValue(COLLECTION, KEY, VALUE), false);
+        final KeyValueDatabaseStore store = new KeyValueDatabaseStore(observerHandler, database);
+
+        Mockito.when(database.putString(Mockito.anyString(), Mockito.anyString(), Mockito.anyString())).thenReturn(VALUE);
+
+        final Response<KeyValue> response = store.execute(request);
+
+        assertTrue(response.isSuccess());
+        assertEquals(VALUE, response.object.value);
+
+        Mockito.verify(database).putString(COLLECTION, KEY, VALUE);
+        Mockito.verify(observerHandler).notifyResponse(response);
+    }
+
+    public void testDeleteInvokesDatabase() {
+        final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
+        final KeyValueDatabase database = Mockito.mock(KeyValueDatabase.class);
+        final Request<KeyValue> request = new Request.Delete<KeyValue>(new KeyValue(COLLECTION, KEY, null), false);
+        final KeyValueDatabaseStore store = new KeyValueDatabaseStore(observerHandler, database);
+
+        Mockito.when(database.deleteString(Mockito.anyString(), Mockito.anyString())).thenReturn("");
+
+        final Response<KeyValue> response = store.execute(request);
+
+        assertTrue(response.isSuccess());
+        assertEquals("", response.object.value);
+
+        Mockito.verify(database).deleteString(COLLECTION, KEY);
+        Mockito.verify(observerHandler).notifyResponse(response);
+    }
+
+    public void testDatabaseFailureReturnsError() {
+        final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
+        final KeyValueDatabase database = Mockito.mock(KeyValueDatabase.class);
+        final Request<KeyValue> request = new Request.Get<KeyValue>(new KeyValue(COLLECTION, KEY, null), false);
+        final KeyValueDatabaseStore store = new KeyValueDatabaseStore(observerHandler, database);
+
+        Mockito.when(database.getString(Mockito.anyString(), Mockito.anyString())).thenThrow(new RuntimeException());
+
+        final Response<KeyValue> response = store.execute(request);
+
+        assertTrue(response.isFailure());
+        Mockito.verify(observerHandler).notifyResponse(response);
+    }
+
+    public void testExecuteAllRunsInsideOneTransaction() {
+        final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
+        final KeyValueDatabase database = Mockito.mock(KeyValueDatabase.class);
+        final KeyValueDatabaseStore store = new KeyValueDatabaseStore(observerHandler, database);
+        final Request<KeyValue> put = new Request.Put<KeyValue>(new KeyValue(COLLECTION, KEY, VALUE), false);
+        final Request<KeyValue> get = new Request.Get<KeyValue>(new KeyValue(COLLECTION, KEY, null), false);
+
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(database).runInTransaction(Mockito.any(Runnable.class));
+
+        store.executeAll(Arrays.asList(put, get));
+
+        final InOrder inOrder = Mockito.inOrder(database);
+        inOrder.verify(database).runInTransaction(Mockito.any(Runnable.class));
+        inOrder.verify(database).putString(COLLECTION, KEY, VALUE);
+        inOrder.verify(database).getString(COLLECTION, KEY);
+    }
+
+    public void testDatabaseRoundTrip() {
+        final String name = "test-" + UUID.randomUUID() + ".db";
+        final KeyValueDatabase database = new KeyValueDatabase(mContext, name);
+
+        try {
+            assertEquals("", database.getString(COLLECTION, KEY));
+
+            database.putString(COLLECTION, KEY, VALUE);
+            assertEquals(VALUE, database.getString(COLLECTION, KEY));
+
+            database.deleteString(COLLECTION, KEY);
+            assertEquals("", database.getString(COLLECTION, KEY));
+
+            database.putString(COLLECTION, KEY, VALUE);
+            database.clear();
+            assertEquals("", database.getString(COLLECTION, KEY));
+        } finally {
+            database.close();
+            mContext.deleteDatabase(name);
+        }
+    }
+}
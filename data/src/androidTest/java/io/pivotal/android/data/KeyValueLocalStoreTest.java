@@ -80,6 +80,42 @@ public class KeyValueLocalStoreTest extends AndroidTestCase {
         Mockito.verify(observerHandler).notifyResponse(response);
     }
 
+    public void testGetIsServedFromCache() {
+        final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+        final Request<KeyValue> request = new Request.Get<KeyValue>(new KeyValue(COLLECTION, KEY, null), false);
+        final KeyValueLocalStore store = new KeyValueLocalStore(observerHandler, persistence, cache);
+
+        Mockito.when(persistence.getString(Mockito.anyString())).thenReturn(VALUE);
+
+        assertEquals(VALUE, store.execute(request).object.value);
+        assertEquals(VALUE, store.execute(request).object.value);
+
+        Mockito.verify(persistence, Mockito.times(1)).getString(COLLECTION + ":" + KEY);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    public void testPutAndDeleteWriteThroughCache() {
+        final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+        final KeyValueLocalStore store = new KeyValueLocalStore(observerHandler, persistence, cache);
+
+        Mockito.when(persistence.putString(Mockito.anyString(), Mockito.anyString())).thenReturn(VALUE);
+        Mockito.when(persistence.deleteString(Mockito.anyString())).thenReturn("");
+
+        store.execute(new Request.Put<KeyValue>(new KeyValue(COLLECTION, KEY, VALUE), false));
+
+        assertEquals(VALUE, cache.get(COLLECTION + ":" + KEY));
+
+        store.execute(new Request.Delete<KeyValue>(new KeyValue(COLLECTION, KEY, null), false));
+
+        assertEquals("", cache.get(COLLECTION + ":" + KEY));
+        Mockito.verify(persistence, Mockito.never()).getString(Mockito.anyString());
+    }
+
     public void testAddObserverInvokesHandler() {
         final ObserverHandler<KeyValue> observerHandler = Mockito.mock(KeyValueObserverHandler.class);
         final DataStore.Observer<KeyValue> observer = Mockito.mock(KeyValueObserver.class);
@@ -6,9 +6,14 @@ package io.pivotal.android.data;
 import android.test.AndroidTestCase;
 
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @SuppressWarnings("unchecked")
 public class KeyValueRemoteStoreTest extends AndroidTestCase {
@@ -139,4 +144,84 @@ public class KeyValueRemoteStoreTest extends AndroidTestCase {
         Mockito.verify(observerHandler).notifyResponse(response);
     }
 
+
+    public void testConcurrentGetsShareOneRemoteCall() throws Exception {
+        final String url = UUID.randomUUID().toString();
+        final Request request = new Request.Get<KeyValue>(new KeyValue(COLLECTION, KEY, null), FORCE);
+        final RemoteClient remoteClient = Mockito.mock(RemoteClient.class);
+        final ObserverHandler observerHandler = Mockito.mock(ObserverHandler.class);
+        final KeyValueRemoteStore remoteStore = Mockito.spy(new KeyValueRemoteStore(observerHandler, remoteClient));
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final long shared = KeyValueRemoteStore.getInFlightGets().getSharedCount();
+        final AtomicReference<Response<KeyValue>> leaderResponse = new AtomicReference<Response<KeyValue>>();
+        final AtomicReference<Response<KeyValue>> followerResponse = new AtomicReference<Response<KeyValue>>();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        Mockito.doReturn(url).when(remoteStore).getUrl(Mockito.any(KeyValue.class));
+        Mockito.when(remoteClient.get(Mockito.anyString(), Mockito.eq(FORCE))).thenAnswer(new Answer<String>() {
+
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                started.countDown();
+                release.await();
+                return VALUE;
+            }
+        });
+
+        final Thread thread = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    leaderResponse.set(remoteStore.execute(request));
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        };
+
+        thread.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        final Thread follower = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    followerResponse.set(remoteStore.execute(request));
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        };
+
+        follower.start();
+        final boolean joined = awaitSharedCount(KeyValueRemoteStore.getInFlightGets(), shared + 1);
+
+        release.countDown();
+        assertTrue(joined);
+        thread.join(1000);
+        follower.join(1000);
+
+        assertFalse(thread.isAlive());
+        assertFalse(follower.isAlive());
+        assertNull(failure.get());
+        assertEquals(VALUE, leaderResponse.get().object.value);
+        assertEquals(VALUE, followerResponse.get().object.value);
+
+        Mockito.verify(remoteClient, Mockito.times(1)).get(url, FORCE);
+        Mockito.verify(observerHandler, Mockito.times(2)).notifyResponse(Mockito.any(Response.class));
+    }
+
+    private static boolean awaitSharedCount(final SingleFlight<?> flight, final long count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 1000;
+        while (flight.getSharedCount() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
 }
@@ -5,8 +5,11 @@ package io.pivotal.android.data;
 
 import android.test.AndroidTestCase;
 
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 @SuppressWarnings("unchecked")
@@ -44,6 +47,28 @@ public class LocalStoreTest extends AndroidTestCase {
         Mockito.verify(observerHandler).removeObserver(observer);
     }
 
+    public void testExecuteAllRunsInsideOneTransaction() {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final LocalStore localStore = Mockito.spy(new DefaultLocalStore(null, persistence));
+        final Request request1 = new Request();
+        final Request request2 = new Request();
+        final Response response1 = new Response(new Object());
+        final Response response2 = new Response(new Object());
+
+        Mockito.doReturn(response1).when(localStore).execute(request1);
+        Mockito.doReturn(response2).when(localStore).execute(request2);
+
+        final List responses = localStore.executeAll(Arrays.asList(request1, request2));
+
+        assertEquals(Arrays.asList(response1, response2), responses);
+
+        final InOrder inOrder = Mockito.inOrder(persistence, localStore);
+        inOrder.verify(persistence).beginTransaction();
+        inOrder.verify(localStore).execute(request1);
+        inOrder.verify(localStore).execute(request2);
+        inOrder.verify(persistence).endTransaction();
+    }
+
 
     // ==============================================================
 
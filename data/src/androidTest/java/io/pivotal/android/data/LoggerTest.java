@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+public class LoggerTest extends AndroidTestCase {
+
+    private static final Object UNPRINTABLE = new Object() {
+
+        @Override
+        public String toString() {
+            throw new AssertionError("Formatted a disabled log message");
+        }
+    };
+
+    public void testDisabledDebugDoesNotFormatArguments() {
+        assertFalse(Logger.isDebugEnabled());
+
+        Logger.v("Value: %s", UNPRINTABLE);
+        Logger.v("Values: %s, %s", UNPRINTABLE, UNPRINTABLE);
+        Logger.v("Values: %s, %s, %s", UNPRINTABLE, UNPRINTABLE, UNPRINTABLE);
+        Logger.d("Value: %s", UNPRINTABLE);
+        Logger.d("Values: %s, %s", UNPRINTABLE, UNPRINTABLE);
+        Logger.d("Values: %s, %s, %s", UNPRINTABLE, UNPRINTABLE, UNPRINTABLE);
+    }
+
+    public void testErrorsAreLoggedWhenDebugIsDisabled() {
+        assertFalse(Logger.isDebugEnabled());
+
+        Logger.e("error");
+        Logger.ex("error", new RuntimeException());
+    }
+}
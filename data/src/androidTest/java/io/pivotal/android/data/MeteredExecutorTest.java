@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class MeteredExecutorTest extends AndroidTestCase {
+
+    private static final class QueuedExecutor implements Executor {
+
+        private final List<Runnable> mQueue = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(final Runnable runnable) {
+            mQueue.add(runnable);
+        }
+
+        public void runAll() {
+            for (final Runnable runnable : mQueue) {
+                runnable.run();
+            }
+            mQueue.clear();
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testQueueDepthTracksPendingRunnables() {
+        final QueuedExecutor delegate = new QueuedExecutor();
+        final MeteredExecutor executor = new MeteredExecutor(delegate);
+        final Runnable runnable = Mockito.mock(Runnable.class);
+
+        executor.execute(runnable);
+        executor.execute(runnable);
+
+        assertEquals(2, executor.getQueueDepth());
+        assertEquals(0, executor.getCompletedCount());
+
+        delegate.runAll();
+
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(0, executor.getActiveCount());
+        assertEquals(2, executor.getCompletedCount());
+
+        Mockito.verify(runnable, Mockito.times(2)).run();
+    }
+
+    public void testWaitTimeIsRecorded() throws Exception {
+        final ExecutorService delegate = Executors.newSingleThreadExecutor();
+        final MeteredExecutor executor = new MeteredExecutor(delegate);
+        final CountDownLatch queued = new CountDownLatch(1);
+
+        delegate.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    queued.await();
+                    Thread.sleep(20);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        executor.execute(Mockito.mock(Runnable.class));
+        queued.countDown();
+
+        delegate.shutdown();
+        assertTrue(delegate.awaitTermination(1, TimeUnit.SECONDS));
+
+        assertEquals(1, executor.getCompletedCount());
+        assertTrue(executor.getMaxWaitMillis() >= 20);
+        assertTrue(executor.getAverageWaitMillis() >= 20);
+    }
+
+    public void testFailingRunnableIsCounted() {
+        final QueuedExecutor delegate = new QueuedExecutor();
+        final MeteredExecutor executor = new MeteredExecutor(delegate);
+        final Runnable runnable = Mockito.mock(Runnable.class);
+
+        Mockito.doThrow(new RuntimeException()).when(runnable).run();
+
+        executor.execute(runnable);
+
+        try {
+            delegate.runAll();
+            fail();
+        } catch (final RuntimeException e) {
+            assertEquals(0, executor.getActiveCount());
+            assertEquals(1, executor.getCompletedCount());
+        }
+    }
+
+    public void testRejectedRunnableIsNotPending() {
+        final Executor delegate = Mockito.mock(Executor.class);
+        final MeteredExecutor executor = new MeteredExecutor(delegate);
+
+        Mockito.doThrow(new RejectedExecutionException()).when(delegate).execute(Mockito.any(Runnable.class));
+
+        try {
+            executor.execute(Mockito.mock(Runnable.class));
+            fail();
+        } catch (final RejectedExecutionException e) {
+            assertEquals(0, executor.getQueueDepth());
+        }
+    }
+
+    public void testInjectedExecutorIsUsed() throws Exception {
+        final QueuedExecutor delegate = new QueuedExecutor();
+        final Runnable runnable = Mockito.mock(Runnable.class);
+
+        DataExecutors.setDiskExecutor(delegate);
+
+        try {
+            assertSame(delegate, DataExecutors.getDiskExecutor().getExecutor());
+
+            DataExecutors.getDiskExecutor().execute(runnable);
+            delegate.runAll();
+
+            Mockito.verify(runnable).run();
+        } finally {
+            DataExecutors.setDiskExecutor(null);
+        }
+    }
+
+    public void testDefaultExecutorRunsOnBackgroundThread() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final String[] name = new String[1];
+
+        DataExecutors.getNetworkExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                name[0] = Thread.currentThread().getName();
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(name[0].startsWith("PCFData-Network"));
+    }
+}
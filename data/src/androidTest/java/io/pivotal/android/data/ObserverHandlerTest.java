@@ -3,11 +3,16 @@
  */
 package io.pivotal.android.data;
 
-import android.os.Message;
 import android.test.AndroidTestCase;
 
 import org.mockito.Mockito;
 
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 @SuppressWarnings("unchecked")
 public class ObserverHandlerTest extends AndroidTestCase {
 
@@ -29,19 +34,249 @@ public class ObserverHandlerTest extends AndroidTestCase {
         final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
         final ObserverHandler handler = new ObserverHandler();
 
-        assertTrue(handler.getObservers().add(observer));
+        assertTrue(handler.addObserver(observer));
         assertTrue(handler.removeObserver(observer));
+        assertFalse(handler.getObservers().contains(observer));
+    }
+
+    public void testGetObserversIsUnmodifiable() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+
+        try {
+            handler.getObservers().add(observer);
+            fail();
+        } catch (final UnsupportedOperationException e) {
+            assertFalse(handler.getObservers().contains(observer));
+        }
+    }
+
+    public void testGetObserversReturnsSnapshot() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Set observers = handler.getObservers();
+
+        handler.addObserver(observer);
+
+        assertFalse(observers.contains(observer));
+        assertTrue(handler.getObservers().contains(observer));
     }
 
-    public void testHandleMessage() {
+    public void testNotifyResponse() {
         final Response response = Mockito.mock(Response.class);
         final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
         final ObserverHandler handler = new ObserverHandler();
         handler.addObserver(observer);
 
-        final Message message = handler.obtainMessage(1000, response);
-        handler.handleMessage(message);
+        notifyAndFlush(handler, response);
+
+        Mockito.verify(observer).onResponse(response);
+    }
+
+    public void testKeyObserverOnlyReceivesMatchingKey() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response match = new Response(new KeyValue("collection", "key", "value"));
+        final Response other = new Response(new KeyValue("collection", "other", "value"));
+
+        assertTrue(handler.addObserver(observer, "collection", "key"));
+
+        notifyAndFlush(handler, match);
+        notifyAndFlush(handler, other);
+
+        Mockito.verify(observer).onResponse(match);
+        Mockito.verify(observer, Mockito.never()).onResponse(other);
+    }
+
+    public void testCollectionObserverReceivesAllKeysInCollection() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response first = new Response(new KeyValue("collection", "key", "value"));
+        final Response second = new Response(new KeyValue("collection", "other", "value"));
+        final Response other = new Response(new KeyValue("other", "key", "value"));
+
+        assertTrue(handler.addObserver(observer, "collection", null));
+
+        notifyAndFlush(handler, first);
+        notifyAndFlush(handler, second);
+        notifyAndFlush(handler, other);
+
+        Mockito.verify(observer).onResponse(first);
+        Mockito.verify(observer).onResponse(second);
+        Mockito.verify(observer, Mockito.never()).onResponse(other);
+    }
+
+    public void testObserverRegisteredTwiceIsNotifiedOnce() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response response = new Response(new KeyValue("collection", "key", "value"));
+
+        handler.addObserver(observer);
+        handler.addObserver(observer, "collection", null);
+        handler.addObserver(observer, "collection", "key");
+
+        notifyAndFlush(handler, response);
+
+        Mockito.verify(observer, Mockito.times(1)).onResponse(response);
+    }
+
+    public void testRemoveObserverRemovesAllSubscriptions() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response response = new Response(new KeyValue("collection", "key", "value"));
+
+        handler.addObserver(observer, "collection", null);
+        handler.addObserver(observer, "collection", "key");
+
+        assertTrue(handler.removeObserver(observer));
+        assertFalse(handler.removeObserver(observer, "collection", "key"));
+
+        notifyAndFlush(handler, response);
+
+        Mockito.verifyZeroInteractions(observer);
+    }
+
+    public void testRemoveKeyObserverKeepsOtherSubscriptions() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response response = new Response(new KeyValue("collection", "key", "value"));
+
+        handler.addObserver(observer, "collection", "key");
+        handler.addObserver(observer, "collection", "other");
+
+        assertTrue(handler.removeObserver(observer, "collection", "key"));
+
+        notifyAndFlush(handler, response);
+        notifyAndFlush(handler, new Response(new KeyValue("collection", "other", "value")));
+
+        Mockito.verify(observer, Mockito.never()).onResponse(response);
+        Mockito.verify(observer, Mockito.times(1)).onResponse(Mockito.any(Response.class));
+    }
+
+    public void testNotifyResponseDeliversEveryDistinctKey() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response first = new Response(new KeyValue("collection", "key", "value"));
+        final Response second = new Response(new KeyValue("collection", "other", "value"));
+
+        handler.addObserver(observer);
+        handler.notifyResponse(first);
+        handler.notifyResponse(second);
+
+        handler.handleMessage(handler.obtainMessage(1000));
+
+        Mockito.verify(observer).onResponse(first);
+        Mockito.verify(observer).onResponse(second);
+    }
+
+    public void testNotifyResponseKeepsNewestResponsePerKey() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response older = new Response(new KeyValue("collection", "key", "older"));
+        final Response newer = new Response(new KeyValue("collection", "key", "newer"));
+
+        handler.addObserver(observer);
+        handler.notifyResponse(older);
+        handler.notifyResponse(newer);
+
+        handler.handleMessage(handler.obtainMessage(1000));
+
+        Mockito.verify(observer, Mockito.never()).onResponse(older);
+        Mockito.verify(observer).onResponse(newer);
+    }
+
+    public void testNotifyResponseKeepsEveryUnidentifiedResponse() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response first = Mockito.mock(Response.class);
+        final Response second = Mockito.mock(Response.class);
+
+        handler.addObserver(observer);
+        handler.notifyResponse(first);
+        handler.notifyResponse(second);
+
+        handler.handleMessage(handler.obtainMessage(1000));
+
+        Mockito.verify(observer).onResponse(first);
+        Mockito.verify(observer).onResponse(second);
+    }
+
+    public void testBatchObserverReceivesWindowInOneCallback() {
+        final DataStore.BatchObserver observer = Mockito.mock(DataStore.BatchObserver.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response first = new Response(new KeyValue("collection", "key", "value"));
+        final Response second = new Response(new KeyValue("collection", "other", "value"));
+
+        handler.addObserver(observer);
+        handler.notifyResponse(first);
+        handler.notifyResponse(second);
+
+        handler.handleMessage(handler.obtainMessage(1000));
+
+        Mockito.verify(observer).onResponses(Arrays.asList(first, second));
+        Mockito.verify(observer, Mockito.never()).onResponse(Mockito.any(Response.class));
+    }
+
+    public void testHandleMessageDrainsPendingResponses() {
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response response = new Response(new KeyValue("collection", "key", "value"));
+
+        handler.addObserver(observer);
+        handler.notifyResponse(response);
+
+        handler.handleMessage(handler.obtainMessage(1000));
+        handler.handleMessage(handler.obtainMessage(1000));
+
+        Mockito.verify(observer, Mockito.times(1)).onResponse(response);
+    }
+
+    public void testObserverCanRemoveItselfDuringDispatch() {
+        final ObserverHandler handler = new ObserverHandler();
+        final DataStore.Observer other = Mockito.mock(DataStore.Observer.class);
+        final Response response = new Response(new KeyValue("collection", "key", "value"));
+        final DataStore.Observer observer = new DataStore.Observer() {
+
+            @Override
+            public void onResponse(final Response response) {
+                handler.removeObserver(this);
+            }
+        };
+
+        handler.addObserver(observer);
+        handler.addObserver(other);
+
+        notifyAndFlush(handler, response);
+
+        Mockito.verify(other).onResponse(response);
+        assertFalse(handler.getObservers().contains(observer));
+    }
+
+    public void testNotifyResponseDispatchesOnExecutor() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DataStore.Observer observer = Mockito.mock(DataStore.Observer.class);
+        final ObserverHandler handler = new ObserverHandler();
+        final Response response = new Response(new KeyValue("collection", "key", "value"));
+
+        handler.setExecutor(new Executor() {
+
+            @Override
+            public void execute(final Runnable command) {
+                command.run();
+                latch.countDown();
+            }
+        });
+
+        handler.addObserver(observer);
+        handler.notifyResponse(response);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
 
         Mockito.verify(observer).onResponse(response);
     }
-}
\ No newline at end of file
+
+    private static void notifyAndFlush(final ObserverHandler handler, final Response response) {
+        handler.notifyResponse(response);
+        handler.handleMessage(handler.obtainMessage(1000));
+    }
+}
@@ -5,21 +5,41 @@ package io.pivotal.android.data;
 
 import android.test.AndroidTestCase;
 
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 
 @SuppressWarnings("unchecked")
 public class OfflineStoreTest extends AndroidTestCase {
 
     private static final boolean RESULT = new Random().nextBoolean();
 
+    private static final Answer<Void> RUN_BATCH = new Answer<Void>() {
+        @Override
+        public Void answer(final InvocationOnMock invocation) {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        }
+    };
+
     @Override
     protected void setUp() throws Exception {
         super.setUp();
         System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
     }
 
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        RetryPolicy.setPolicy(Request.Methods.PUT, null);
+    }
+
     public void testGetInvokesRemoteAndLocalStoreWhenConnectionIsAvailableAndRemoteSucceeds() {
         final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
         final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
@@ -148,6 +168,47 @@ public class OfflineStoreTest extends AndroidTestCase {
         Mockito.verify(keyValueStore, Mockito.never()).execute(request);
     }
 
+    public void testExecuteWithFallbackQueuesRequestWhenRetriesAreExhausted() {
+        final KeyValueLocalStore keyValueStore = Mockito.mock(KeyValueLocalStore.class);
+        final RemoteStore remoteStore = Mockito.mock(RemoteStore.class);
+        final RequestCache requestCache = Mockito.mock(RequestCache.class);
+        final Response remoteResponse = new Response(new Object(), new DataError(new RetryExhaustedException(503, "Unavailable", 3)));
+        final Response localResponse = new Response(new Object(), null);
+        final OfflineStore offlineStore = Mockito.spy(new OfflineStore(null, keyValueStore, remoteStore));
+        final Request request = new Request(Request.Methods.PUT, new Object());
+
+        RetryPolicy.setPolicy(Request.Methods.PUT, new RetryPolicy(3, 0, 0, 0, true, true));
+
+        Mockito.doReturn(true).when(offlineStore).isConnected();
+        Mockito.doReturn(requestCache).when(offlineStore).getRequestCache();
+        Mockito.when(remoteStore.execute(Mockito.any(Request.class))).thenReturn(remoteResponse);
+        Mockito.when(keyValueStore.execute(Mockito.any(Request.class))).thenReturn(localResponse);
+
+        assertEquals(localResponse, offlineStore.executeWithFallback(request));
+
+        Mockito.verify(remoteStore).execute(request);
+        Mockito.verify(keyValueStore).execute(request);
+        Mockito.verify(requestCache).queue(request);
+    }
+
+    public void testExecuteWithFallbackReturnsExhaustedFailureWhenQueueingIsOff() {
+        final KeyValueLocalStore keyValueStore = Mockito.mock(KeyValueLocalStore.class);
+        final RemoteStore remoteStore = Mockito.mock(RemoteStore.class);
+        final RequestCache requestCache = Mockito.mock(RequestCache.class);
+        final Response remoteResponse = new Response(new Object(), new DataError(new RetryExhaustedException(503, "Unavailable", 3)));
+        final OfflineStore offlineStore = Mockito.spy(new OfflineStore(null, keyValueStore, remoteStore));
+        final Request request = new Request(Request.Methods.PUT, new Object());
+
+        Mockito.doReturn(true).when(offlineStore).isConnected();
+        Mockito.doReturn(requestCache).when(offlineStore).getRequestCache();
+        Mockito.when(remoteStore.execute(Mockito.any(Request.class))).thenReturn(remoteResponse);
+
+        assertEquals(remoteResponse, offlineStore.executeWithFallback(request));
+
+        Mockito.verifyZeroInteractions(requestCache);
+        Mockito.verify(keyValueStore, Mockito.never()).execute(request);
+    }
+
     public void testExecuteWithFallbackInvokesRemoteAndLocalStoreWhenConnectionIsNotAvailable() {
         final KeyValueLocalStore keyValueStore = Mockito.mock(KeyValueLocalStore.class);
         final RequestCache requestCache = Mockito.mock(RequestCache.class);
@@ -199,4 +260,169 @@ public class OfflineStoreTest extends AndroidTestCase {
         Mockito.verify(keyValueStore).removeObserver(observer);
         Mockito.verify(remoteStore).removeObserver(observer);
     }
+
+    public void testGetReturnsLocalValueAndRevalidatesWhenStale() {
+        final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
+        final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
+        final KeyValue object = new KeyValue(UUID.randomUUID().toString(), UUID.randomUUID().toString(), null);
+        final Response localResponse = new Response(new KeyValue(object.collection, object.key, "value"), null);
+        final KeyValueOfflineStore offlineStore = Mockito.spy(new KeyValueOfflineStore(null, localStore, remoteStore));
+        final Request request = new Request.Get(object);
+
+        Mockito.doReturn(true).when(offlineStore).isConnected();
+        Mockito.doReturn(OfflineStore.ReadPolicies.STALE_WHILE_REVALIDATE).when(offlineStore).getReadPolicy();
+        Mockito.doNothing().when(offlineStore).revalidate(Mockito.any(Request.class));
+        Mockito.when(localStore.execute(Mockito.any(Request.class))).thenReturn(localResponse);
+
+        assertEquals(localResponse, offlineStore.get(request));
+
+        Mockito.verify(offlineStore).revalidate(request);
+        Mockito.verify(remoteStore, Mockito.never()).execute(Mockito.any(Request.class));
+    }
+
+    public void testGetSkipsRevalidationWithinMaxAge() {
+        final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
+        final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
+        final KeyValue object = new KeyValue(UUID.randomUUID().toString(), UUID.randomUUID().toString(), null);
+        final Response localResponse = new Response(new KeyValue(object.collection, object.key, "value"), null);
+        final Response remoteResponse = new Response(new KeyValue(object.collection, object.key, "value"), null);
+        final KeyValueOfflineStore offlineStore = Mockito.spy(new KeyValueOfflineStore(null, localStore, remoteStore));
+        final Request request = new Request.Get(object);
+
+        OfflineStore.setMaxAge(object.collection, 60000);
+
+        Mockito.doReturn(true).when(offlineStore).isConnected();
+        Mockito.doReturn(OfflineStore.ReadPolicies.STALE_WHILE_REVALIDATE).when(offlineStore).getReadPolicy();
+        Mockito.doNothing().when(offlineStore).revalidate(Mockito.any(Request.class));
+        Mockito.when(remoteStore.execute(Mockito.any(Request.class))).thenReturn(remoteResponse);
+        Mockito.when(localStore.execute(Mockito.any(Request.class))).thenReturn(localResponse);
+
+        offlineStore.executeRevalidation(request);
+
+        assertEquals(localResponse, offlineStore.get(request));
+
+        Mockito.verify(offlineStore, Mockito.never()).revalidate(Mockito.any(Request.class));
+        Mockito.verify(remoteStore, Mockito.times(1)).execute(Mockito.any(Request.class));
+    }
+
+    public void testGetGoesRemoteWhenNoLocalValue() {
+        final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
+        final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
+        final KeyValue object = new KeyValue(UUID.randomUUID().toString(), UUID.randomUUID().toString(), null);
+        final Response localResponse = new Response(new KeyValue(object.collection, object.key, ""), null);
+        final Response remoteResponse = new Response(new KeyValue(object.collection, object.key, "value"), null);
+        final KeyValueOfflineStore offlineStore = Mockito.spy(new KeyValueOfflineStore(null, localStore, remoteStore));
+        final Request request = new Request.Get(object);
+
+        Mockito.doReturn(true).when(offlineStore).isConnected();
+        Mockito.doReturn(OfflineStore.ReadPolicies.STALE_WHILE_REVALIDATE).when(offlineStore).getReadPolicy();
+        Mockito.when(remoteStore.execute(Mockito.any(Request.class))).thenReturn(remoteResponse);
+        Mockito.when(localStore.execute(Mockito.any(Request.class))).thenReturn(localResponse);
+
+        offlineStore.get(request);
+
+        Mockito.verify(remoteStore).execute(request);
+        Mockito.verify(offlineStore, Mockito.never()).revalidate(Mockito.any(Request.class));
+    }
+
+    public void testRevalidationWithNotModifiedDoesNotTouchLocalStore() {
+        final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
+        final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
+        final KeyValue object = new KeyValue(UUID.randomUUID().toString(), UUID.randomUUID().toString(), null);
+        final Response remoteResponse = new Response(object, new DataError(new DataHttpException(304, "")));
+        final KeyValueOfflineStore offlineStore = new KeyValueOfflineStore(null, localStore, remoteStore);
+        final Request request = new Request.Get(object);
+
+        OfflineStore.setMaxAge(object.collection, 60000);
+
+        Mockito.when(remoteStore.execute(Mockito.any(Request.class))).thenReturn(remoteResponse);
+
+        assertTrue(offlineStore.isStale(object));
+
+        offlineStore.executeRevalidation(request);
+
+        assertFalse(offlineStore.isStale(object));
+
+        Mockito.verify(remoteStore).execute(request);
+        Mockito.verifyZeroInteractions(localStore);
+    }
+
+    public void testExecuteAllInvokesRemoteThenLocalStoreInOneBatch() {
+        final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
+        final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
+        final Response remoteResponse = new Response(new Object(), null);
+        final Response localResponse = new Response(new Object(), null);
+        final OfflineStore offlineStore = Mockito.spy(new OfflineStore(null, localStore, remoteStore));
+        final Request put = new Request.Put(new Object());
+        final Request get = new Request.Get(new Object());
+
+        Mockito.doReturn(true).when(offlineStore).isConnected();
+        Mockito.when(remoteStore.executeAll(Mockito.anyList())).thenReturn(Arrays.asList(remoteResponse, remoteResponse));
+        Mockito.when(localStore.execute(Mockito.any(Request.class))).thenReturn(localResponse);
+        Mockito.doAnswer(RUN_BATCH).when(localStore).runInBatch(Mockito.any(Runnable.class));
+
+        final List responses = offlineStore.executeAll(Arrays.asList(put, get));
+
+        assertEquals(Arrays.asList(localResponse, localResponse), responses);
+
+        final InOrder inOrder = Mockito.inOrder(remoteStore, localStore);
+        inOrder.verify(remoteStore).executeAll(Arrays.asList(put, get));
+        inOrder.verify(localStore).runInBatch(Mockito.any(Runnable.class));
+        inOrder.verify(localStore, Mockito.times(2)).execute(Mockito.any(Request.class));
+        Mockito.verify(remoteStore, Mockito.never()).execute(Mockito.any(Request.class));
+    }
+
+    public void testExecuteAllReadsLocalValuesFirstWhenStaleWhileRevalidate() {
+        final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
+        final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
+        final String collection = UUID.randomUUID().toString();
+        final Request hit = new Request.Get(new KeyValue(collection, "hit", null));
+        final Request miss = new Request.Get(new KeyValue(collection, "miss", null));
+        final Request put = new Request.Put(new KeyValue(collection, "put", "value"));
+        final Response hitResponse = new Response(new KeyValue(collection, "hit", "value"), null);
+        final Response missResponse = new Response(new KeyValue(collection, "miss", ""), null);
+        final Response remoteResponse = new Response(new KeyValue(collection, "miss", "value"), null);
+        final Response localResponse = new Response(new KeyValue(collection, "put", "value"), null);
+        final KeyValueOfflineStore offlineStore = Mockito.spy(new KeyValueOfflineStore(null, localStore, remoteStore));
+
+        Mockito.doReturn(true).when(offlineStore).isConnected();
+        Mockito.doReturn(OfflineStore.ReadPolicies.STALE_WHILE_REVALIDATE).when(offlineStore).getReadPolicy();
+        Mockito.doNothing().when(offlineStore).revalidate(Mockito.any(Request.class));
+        Mockito.when(remoteStore.executeAll(Mockito.anyList())).thenReturn(Arrays.asList(remoteResponse, remoteResponse));
+        Mockito.when(localStore.execute(Mockito.any(Request.class))).thenReturn(localResponse);
+        Mockito.when(localStore.execute(hit)).thenReturn(hitResponse);
+        Mockito.when(localStore.execute(miss)).thenReturn(missResponse);
+        Mockito.doAnswer(RUN_BATCH).when(localStore).runInBatch(Mockito.any(Runnable.class));
+
+        final List responses = offlineStore.executeAll(Arrays.asList(hit, miss, put));
+
+        assertEquals(Arrays.asList(hitResponse, localResponse, localResponse), responses);
+
+        Mockito.verify(offlineStore).revalidate(hit);
+        Mockito.verify(offlineStore, Mockito.never()).revalidate(miss);
+        Mockito.verify(remoteStore).executeAll(Arrays.asList(miss, put));
+        Mockito.verify(remoteStore, Mockito.never()).execute(Mockito.any(Request.class));
+    }
+
+    public void testExecuteAllQueuesRequestsWhenConnectionIsNotAvailable() {
+        final KeyValueLocalStore localStore = Mockito.mock(KeyValueLocalStore.class);
+        final KeyValueRemoteStore remoteStore = Mockito.mock(KeyValueRemoteStore.class);
+        final RequestCache requestCache = Mockito.mock(RequestCache.class);
+        final Response localResponse = new Response(new Object(), null);
+        final OfflineStore offlineStore = Mockito.spy(new OfflineStore(null, localStore, remoteStore));
+        final Request put = new Request.Put(new Object());
+        final Request get = new Request.Get(new Object());
+
+        Mockito.doReturn(false).when(offlineStore).isConnected();
+        Mockito.doReturn(requestCache).when(offlineStore).getRequestCache();
+        Mockito.when(localStore.execute(Mockito.any(Request.class))).thenReturn(localResponse);
+        Mockito.doAnswer(RUN_BATCH).when(localStore).runInBatch(Mockito.any(Runnable.class));
+
+        offlineStore.executeAll(Arrays.asList(put, get));
+
+        Mockito.verify(localStore).runInBatch(Mockito.any(Runnable.class));
+        Mockito.verify(requestCache).queue(put);
+        Mockito.verify(requestCache).queue(get);
+        Mockito.verifyZeroInteractions(remoteStore);
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class PendingRequestCodecTest extends AndroidTestCase {
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+    private static final String FALLBACK = UUID.randomUUID().toString();
+
+    public void testBinaryRoundTrip() throws Exception {
+        final PendingRequestCodec<KeyValue> codec = new PendingRequestCodec.Binary<KeyValue>();
+        final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>(new Request.Put<KeyValue>(
+                new KeyValue(COLLECTION, KEY, VALUE), new KeyValue(COLLECTION, KEY, FALLBACK), true));
+
+        final PendingRequest<KeyValue> decoded = codec.decode(codec.encode(request));
+
+        assertEquals(Request.Methods.PUT, decoded.method);
+        assertTrue(decoded.force);
+        assertEquals(COLLECTION, decoded.object.collection);
+        assertEquals(KEY, decoded.object.key);
+        assertEquals(VALUE, decoded.object.value);
+        assertEquals(COLLECTION, decoded.fallback.collection);
+        assertEquals(KEY, decoded.fallback.key);
+        assertEquals(FALLBACK, decoded.fallback.value);
+    }
+
+    public void testBinaryRoundTripWithNulls() throws Exception {
+        final PendingRequestCodec<KeyValue> codec = new PendingRequestCodec.Binary<KeyValue>();
+        final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>(new Request.Delete<KeyValue>(new KeyValue(COLLECTION, KEY, null)));
+
+        final PendingRequest<KeyValue> decoded = codec.decode(codec.encode(request));
+
+        assertEquals(Request.Methods.DELETE, decoded.method);
+        assertFalse(decoded.force);
+        assertNull(decoded.object.value);
+        assertNull(decoded.fallback);
+    }
+
+    public void testBinaryRoundTripWithDifferentFallbackIdentity() throws Exception {
+        final PendingRequestCodec<KeyValue> codec = new PendingRequestCodec.Binary<KeyValue>();
+        final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>(new Request.Put<KeyValue>(
+                new KeyValue(COLLECTION, KEY, VALUE), new KeyValue("other", "key", FALLBACK), false));
+
+        final PendingRequest<KeyValue> decoded = codec.decode(codec.encode(request));
+
+        assertEquals("other", decoded.fallback.collection);
+        assertEquals("key", decoded.fallback.key);
+        assertEquals(FALLBACK, decoded.fallback.value);
+    }
+
+    public void testBinaryInternsCollectionNames() throws Exception {
+        final PendingRequestCodec<KeyValue> codec = new PendingRequestCodec.Binary<KeyValue>();
+        final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>(new Request.Put<KeyValue>(new KeyValue(COLLECTION, KEY, VALUE)));
+        final byte[] record = codec.encode(request);
+
+        assertSame(codec.decode(record).object.collection, codec.decode(record).object.collection);
+    }
+
+    public void testBinaryIsSmallerThanJson() throws Exception {
+        final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>(new Request.Put<KeyValue>(
+                new KeyValue(COLLECTION, KEY, VALUE), new KeyValue(COLLECTION, KEY, FALLBACK), false));
+
+        final byte[] binary = new PendingRequestCodec.Binary<KeyValue>().encode(request);
+        final byte[] json = new PendingRequestCodec.Json<KeyValue>().encode(request);
+
+        assertTrue(binary.length < json.length);
+    }
+
+    public void testBinaryFallsBackToJsonForUnsupportedRequests() throws Exception {
+        final PendingRequestCodec<KeyValue> codec = new PendingRequestCodec.Binary<KeyValue>();
+        final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>(new Request.Get<KeyValue>(new KeyValue(COLLECTION, KEY, VALUE)));
+        request.method = -1;
+
+        final byte[] record = codec.encode(request);
+        final PendingRequest<KeyValue> decoded = codec.decode(record);
+
+        assertEquals('{', record[1]);
+        assertEquals(-1, decoded.method);
+        assertEquals(VALUE, decoded.object.value);
+    }
+
+    public void testDecodeRejectsUnknownFormat() {
+        try {
+            new PendingRequestCodec.Binary<KeyValue>().decode(new byte[] { 9 });
+            fail();
+        } catch (final Exception e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    public void testDecodeRejectsStringLongerThanRecord() {
+        try {
+            new PendingRequestCodec.Binary<KeyValue>().decode(new byte[] { 1, 2, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+            fail();
+        } catch (final IOException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    public void testDecodeRejectsNegativeStringLength() {
+        try {
+            new PendingRequestCodec.Binary<KeyValue>().decode(new byte[] { 1, 2, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F });
+            fail();
+        } catch (final IOException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+}
@@ -16,16 +16,23 @@ import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.message.BasicHeader;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import org.mockito.Mockito;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.Properties;
 import java.util.Random;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class RemoteClientTest extends AndroidTestCase {
 
@@ -50,6 +57,10 @@ public class RemoteClientTest extends AndroidTestCase {
         super.tearDown();
 
         Pivotal.setProperties(null);
+        RemoteClient.Default.removeHeader("X-Tenant");
+        RemoteClient.Default.removeHeader("X-Device");
+        RetryPolicy.setPolicy(Request.Methods.GET, null);
+        RetryPolicy.setPolicy(Request.Methods.PUT, null);
     }
 
     public void testGetCallsExecuteWithRequest() throws Exception {
@@ -115,7 +126,7 @@ public class RemoteClientTest extends AndroidTestCase {
         Mockito.verify(statusLine).getStatusCode();
         Mockito.verify(client).addHeaders(request, FORCE);
         Mockito.verify(client).handleResponse(httpResponse, URL);
-        Mockito.verify(client, Mockito.never()).invalidateAccessToken();
+        Mockito.verify(client, Mockito.never()).invalidateAccessToken(Mockito.anyString());
     }
 
     public void testExecuteAddsHeadersAndHandles401Response() throws Exception {
@@ -130,7 +141,8 @@ public class RemoteClientTest extends AndroidTestCase {
         Mockito.when(httpClient.execute(Mockito.any(HttpUriRequest.class))).thenReturn(httpResponse);
         Mockito.when(httpResponse.getStatusLine()).thenReturn(statusLine);
         Mockito.when(statusLine.getStatusCode()).thenReturn(401);
-        Mockito.doNothing().when(client).invalidateAccessToken();
+        Mockito.when(request.getFirstHeader(RemoteClient.Default.Headers.AUTHORIZATION)).thenReturn(new BasicHeader(RemoteClient.Default.Headers.AUTHORIZATION, "Bearer " + TOKEN));
+        Mockito.doNothing().when(client).invalidateAccessToken(Mockito.anyString());
         Mockito.doNothing().when(client).addHeaders(Mockito.any(HttpUriRequest.class), Mockito.anyBoolean());
         Mockito.doNothing().when(client).addAuthHeader(Mockito.any(HttpUriRequest.class));
         Mockito.doReturn(RESULT).when(client).handleResponse(Mockito.any(HttpResponse.class), Mockito.anyString());
@@ -144,7 +156,8 @@ public class RemoteClientTest extends AndroidTestCase {
         Mockito.verify(client).addHeaders(request, FORCE);
         Mockito.verify(client).addAuthHeader(request);
         Mockito.verify(client).handleResponse(httpResponse, URL);
-        Mockito.verify(client).invalidateAccessToken();
+        Mockito.verify(client).invalidateAccessToken(TOKEN);
+        Mockito.verify(request).removeHeaders(RemoteClient.Default.Headers.AUTHORIZATION);
     }
 
     public void testAddHeaders() throws Exception {
@@ -158,6 +171,7 @@ public class RemoteClientTest extends AndroidTestCase {
 
         Mockito.verify(client).addUserAgentHeader(Mockito.any(HttpGet.class));
         Mockito.verify(client).addAuthHeader(Mockito.any(HttpGet.class));
+        Mockito.verify(request).addHeader(RemoteClient.Default.Headers.ACCEPT_ENCODING, RemoteClient.Default.GZIP);
 
         if (!FORCE) {
             Mockito.verify(client).addEtagHeader(Mockito.any(HttpUriRequest.class), Mockito.eq(URL));
@@ -186,6 +200,50 @@ public class RemoteClientTest extends AndroidTestCase {
         Mockito.verify(httpRequest).addHeader(RemoteClient.Default.Headers.AUTHORIZATION, "Bearer " + TOKEN);
     }
 
+    public void testAddAuthHeaderReusesHeaderValueForSameToken() {
+        final HttpUriRequest first = Mockito.mock(HttpUriRequest.class);
+        final HttpUriRequest second = Mockito.mock(HttpUriRequest.class);
+        final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, null));
+
+        Mockito.doReturn(TOKEN).when(client).provideAccessToken();
+
+        client.addAuthHeader(first);
+        client.addAuthHeader(second);
+
+        assertSame(RemoteClient.Default.getAuthorization(TOKEN), RemoteClient.Default.getAuthorization(new String(TOKEN)));
+        Mockito.verify(second).addHeader(RemoteClient.Default.Headers.AUTHORIZATION, "Bearer " + TOKEN);
+    }
+
+    public void testAddStaticHeadersAddsRegisteredHeaders() {
+        final HttpUriRequest httpRequest = Mockito.mock(HttpUriRequest.class);
+        final RemoteClient.Default client = new RemoteClient.Default(null, null);
+
+        RemoteClient.Default.setHeader("X-Tenant", "tenant");
+        RemoteClient.Default.setHeader("X-Device", "device");
+
+        client.addStaticHeaders(httpRequest);
+
+        final Header[] headers = RemoteClient.Default.getHeaders();
+
+        assertEquals(2, headers.length);
+        Mockito.verify(httpRequest).addHeader(headers[0]);
+        Mockito.verify(httpRequest).addHeader(headers[1]);
+        assertEquals("X-Tenant", headers[0].getName());
+        assertEquals("device", headers[1].getValue());
+    }
+
+    public void testSetHeaderReplacesAndRemovesHeader() {
+        RemoteClient.Default.setHeader("X-Tenant", "first");
+        RemoteClient.Default.setHeader("X-Tenant", "second");
+
+        assertEquals(1, RemoteClient.Default.getHeaders().length);
+        assertEquals("second", RemoteClient.Default.getHeaders()[0].getValue());
+
+        RemoteClient.Default.removeHeader("X-Tenant");
+
+        assertEquals(0, RemoteClient.Default.getHeaders().length);
+    }
+
     public void testAddAuthHeaderThrowsExceptionIfAccessTokenIsNull() {
         final HttpUriRequest httpRequest = Mockito.mock(HttpUriRequest.class);
         final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, null));
@@ -219,6 +277,28 @@ public class RemoteClientTest extends AndroidTestCase {
         Mockito.verify(httpRequest).addHeader(IF_MATCH, RESULT);
     }
 
+    public void testAddEtagHeaderForPutAfterEtagWasEvicted() {
+        final Properties properties = new Properties();
+        properties.setProperty("pivotal.data.collisionStrategy", "OptimisticLocking");
+        Pivotal.setProperties(properties);
+
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final EtagStore etagStore = new EtagStore(persistence, 1);
+        final Context context = Mockito.mock(Context.class);
+        final RemoteClient.Default client = new RemoteClient.Default(context, etagStore);
+        final HttpPut httpRequest = Mockito.mock(HttpPut.class);
+
+        etagStore.put(URL, RESULT);
+        etagStore.put(URL + "/other", RESULT);
+
+        Mockito.when(persistence.getString(URL)).thenReturn(RESULT);
+
+        client.addEtagHeader(httpRequest, URL);
+
+        Mockito.verify(httpRequest).addHeader(IF_MATCH, RESULT);
+        Mockito.verify(httpRequest, Mockito.never()).addHeader(IF_NONE_MATCH, "*");
+    }
+
     public void testAddEtagHeaderIfEtagsAreSupportedAndGetRequestHasEtag() {
         final Properties properties = new Properties();
         properties.setProperty("pivotal.data.collisionStrategy", "OptimisticLocking");
@@ -288,6 +368,21 @@ public class RemoteClientTest extends AndroidTestCase {
         assertEquals(RemoteClient.Default.Timeouts.SOCKET, HttpConnectionParams.getSoTimeout(params));
     }
 
+    public void testGetHttpClientIsReusedAcrossRequests() {
+        final RemoteClient.Default client = new RemoteClient.Default(null, null);
+
+        assertSame(client.getHttpClient(), client.getHttpClient());
+    }
+
+    public void testGetHttpClientUsesConnectionManager() {
+        final ConnectionPool pool = new ConnectionPool();
+        final RemoteClient.Default client = new RemoteClient.Default(null, null, pool);
+
+        assertSame(pool, client.getHttpClient().getConnectionManager());
+
+        pool.shutdown();
+    }
+
     public void testHandleResponseWithSuccessStatusCodeAndEtagsDisabled() throws Exception {
         final EtagStore etagStore = Mockito.mock(EtagStore.class);
         final Context context = Mockito.mock(Context.class);
@@ -410,6 +505,220 @@ public class RemoteClientTest extends AndroidTestCase {
         Mockito.verify(inputStream).close();
     }
 
+    public void testGetWithBodyReaderHandsStreamToReader() throws Exception {
+        final EtagStore etagStore = Mockito.mock(EtagStore.class);
+        final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, etagStore));
+        final HttpResponse httpResponse = Mockito.mock(HttpResponse.class);
+        final StatusLine httpStatusLine = Mockito.mock(StatusLine.class);
+        final HttpEntity httpEntity = Mockito.mock(HttpEntity.class);
+        final boolean[] closed = new boolean[1];
+        final InputStream inputStream = new ByteArrayInputStream(RESULT.getBytes()) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        };
+
+        Mockito.doReturn(httpResponse).when(client).executeForResponse(Mockito.any(HttpUriRequest.class), Mockito.anyBoolean());
+        Mockito.when(httpResponse.getStatusLine()).thenReturn(httpStatusLine);
+        Mockito.when(httpStatusLine.getStatusCode()).thenReturn(200);
+        Mockito.when(httpResponse.getEntity()).thenReturn(httpEntity);
+        Mockito.when(httpEntity.getContent()).thenReturn(inputStream);
+        Mockito.when(httpEntity.getContentLength()).thenReturn((long) RESULT.length());
+
+        final byte[] body = client.get(URL, FORCE, RemoteClient.Default.BodyReaders.BYTES);
+
+        assertEquals(RESULT, new String(body));
+
+        Mockito.verify(client).executeForResponse(Mockito.isA(HttpGet.class), Mockito.eq(FORCE));
+        Mockito.verify(client, Mockito.never()).getResponseBody(httpResponse);
+        assertTrue(closed[0]);
+    }
+
+    public void testGetResponseBodyDecodesGzipContent() throws Exception {
+        final RemoteClient.Default client = new RemoteClient.Default(null, null);
+        final HttpResponse httpResponse = Mockito.mock(HttpResponse.class);
+        final HttpEntity httpEntity = Mockito.mock(HttpEntity.class);
+        final Header encoding = Mockito.mock(Header.class);
+        final byte[] compressed = gzip(RESULT.getBytes());
+        final CompressionStats stats = CompressionStats.getInstance();
+        final long received = stats.getBytesReceived();
+        final long decoded = stats.getBytesDecoded();
+
+        Mockito.when(httpResponse.getEntity()).thenReturn(httpEntity);
+        Mockito.when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(compressed));
+        Mockito.when(httpEntity.getContentLength()).thenReturn((long) compressed.length);
+        Mockito.when(httpEntity.getContentEncoding()).thenReturn(encoding);
+        Mockito.when(encoding.getValue()).thenReturn("gzip");
+
+        assertEquals(RESULT, client.getResponseBody(httpResponse));
+
+        assertEquals(compressed.length, stats.getBytesReceived() - received);
+        assertEquals(RESULT.length(), stats.getBytesDecoded() - decoded);
+    }
+
+    public void testCreateEntityCompressesAboveThreshold() throws Exception {
+        final RemoteClient.Default client = new RemoteClient.Default(null, null);
+        final byte[] data = new byte[4096];
+
+        RemoteClient.Default.setCompressionThreshold(1024);
+
+        try {
+            final HttpEntity entity = client.createEntity(data);
+
+            assertEquals("gzip", entity.getContentEncoding().getValue());
+            assertTrue(entity.getContentLength() < data.length);
+
+            final GZIPInputStream stream = new GZIPInputStream(entity.getContent());
+            assertEquals(data.length, StreamUtils.consumeBytesAndClose(stream, -1).length);
+        } finally {
+            RemoteClient.Default.setCompressionThreshold(-1);
+        }
+    }
+
+    public void testCreateEntityDoesNotCompressBelowThreshold() throws Exception {
+        final RemoteClient.Default client = new RemoteClient.Default(null, null);
+
+        RemoteClient.Default.setCompressionThreshold(1024);
+
+        try {
+            final HttpEntity entity = client.createEntity(DATA);
+
+            assertNull(entity.getContentEncoding());
+            assertEquals(DATA.length, entity.getContentLength());
+        } finally {
+            RemoteClient.Default.setCompressionThreshold(-1);
+        }
+    }
+
+    public void testCreateEntityDoesNotCompressWhenDisabled() throws Exception {
+        final RemoteClient.Default client = new RemoteClient.Default(null, null);
+
+        assertNull(client.createEntity(new byte[4096]).getContentEncoding());
+    }
+
+    public void testExecuteRetriesRetryableStatus() throws Exception {
+        final HttpGet request = new HttpGet(URL);
+        final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, null));
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        final HttpResponse unavailable = createResponse(503);
+        final HttpResponse success = createResponse(200);
+
+        RetryPolicy.setPolicy(Request.Methods.GET, new RetryPolicy(3, 0, 0, 0, true, false));
+        RetryStats.getInstance().reset();
+
+        Mockito.doReturn(httpClient).when(client).getHttpClient();
+        Mockito.doNothing().when(client).addHeaders(Mockito.any(HttpUriRequest.class), Mockito.anyBoolean());
+        Mockito.when(httpClient.execute(request)).thenReturn(unavailable, success);
+
+        assertSame(success, client.executeForResponse(request, FORCE));
+
+        Mockito.verify(httpClient, Mockito.times(2)).execute(request);
+        assertEquals(2, RetryStats.getInstance().getAttempts());
+        assertEquals(1, RetryStats.getInstance().getRetries());
+        assertEquals(1, RetryStats.getInstance().getRecovered());
+    }
+
+    public void testExecuteThrowsRetryExhaustedAfterMaxAttempts() throws Exception {
+        final HttpGet request = new HttpGet(URL);
+        final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, null));
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        final HttpResponse unavailable = createResponse(503);
+
+        RetryPolicy.setPolicy(Request.Methods.GET, new RetryPolicy(3, 0, 0, 0, true, false));
+        RetryStats.getInstance().reset();
+
+        Mockito.doReturn(httpClient).when(client).getHttpClient();
+        Mockito.doNothing().when(client).addHeaders(Mockito.any(HttpUriRequest.class), Mockito.anyBoolean());
+        Mockito.when(httpClient.execute(request)).thenReturn(unavailable);
+
+        try {
+            client.executeForResponse(request, FORCE);
+            fail();
+        } catch (final RetryExhaustedException e) {
+            assertEquals(503, e.getStatusCode());
+            assertEquals(3, e.getAttempts());
+            assertTrue(new DataError(e).isRetryExhausted());
+        }
+
+        Mockito.verify(httpClient, Mockito.times(3)).execute(request);
+        assertEquals(1, RetryStats.getInstance().getExhausted());
+    }
+
+    public void testExecuteRetriesConnectionFailures() throws Exception {
+        final HttpPut request = new HttpPut(URL);
+        final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, null));
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        final HttpResponse success = createResponse(200);
+
+        RetryPolicy.setPolicy(Request.Methods.PUT, new RetryPolicy(3, 0, 0, 0, false, false));
+
+        Mockito.doReturn(httpClient).when(client).getHttpClient();
+        Mockito.doNothing().when(client).addHeaders(Mockito.any(HttpUriRequest.class), Mockito.anyBoolean());
+        Mockito.when(httpClient.execute(request)).thenThrow(new ConnectException()).thenReturn(success);
+
+        assertSame(success, client.executeForResponse(request, FORCE));
+
+        Mockito.verify(httpClient, Mockito.times(2)).execute(request);
+    }
+
+    public void testExecuteDoesNotRetryNonIdempotentTimeouts() throws Exception {
+        final HttpPut request = new HttpPut(URL);
+        final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, null));
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        final SocketTimeoutException timeout = new SocketTimeoutException();
+
+        RetryPolicy.setPolicy(Request.Methods.PUT, new RetryPolicy(3, 0, 0, 0, false, false));
+
+        Mockito.doReturn(httpClient).when(client).getHttpClient();
+        Mockito.doNothing().when(client).addHeaders(Mockito.any(HttpUriRequest.class), Mockito.anyBoolean());
+        Mockito.when(httpClient.execute(request)).thenThrow(timeout);
+
+        try {
+            client.executeForResponse(request, FORCE);
+            fail();
+        } catch (final SocketTimeoutException e) {
+            assertSame(timeout, e);
+        }
+
+        Mockito.verify(httpClient, Mockito.times(1)).execute(request);
+    }
+
+    public void testExecuteDoesNotCountFailedFinalStatusAsRecovered() throws Exception {
+        final HttpGet request = new HttpGet(URL);
+        final RemoteClient.Default client = Mockito.spy(new RemoteClient.Default(null, null));
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        final HttpResponse notFound = createResponse(404);
+
+        RetryPolicy.setPolicy(Request.Methods.GET, new RetryPolicy(3, 0, 0, 0, true, false));
+        RetryStats.getInstance().reset();
+
+        Mockito.doReturn(httpClient).when(client).getHttpClient();
+        Mockito.doNothing().when(client).addHeaders(Mockito.any(HttpUriRequest.class), Mockito.anyBoolean());
+        Mockito.when(httpClient.execute(request)).thenThrow(new ConnectException()).thenReturn(notFound);
+
+        assertSame(notFound, client.executeForResponse(request, FORCE));
+
+        assertEquals(2, RetryStats.getInstance().getAttempts());
+        assertEquals(0, RetryStats.getInstance().getRecovered());
+    }
+
+    private static HttpResponse createResponse(final int statusCode) {
+        final HttpResponse response = Mockito.mock(HttpResponse.class);
+        final StatusLine statusLine = Mockito.mock(StatusLine.class);
+        Mockito.when(response.getStatusLine()).thenReturn(statusLine);
+        Mockito.when(statusLine.getStatusCode()).thenReturn(statusCode);
+        return response;
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final GZIPOutputStream stream = new GZIPOutputStream(output);
+        stream.write(data);
+        stream.close();
+        return output.toByteArray();
+    }
+
     public void testGetAccessTokenWithNoProvider() {
         TokenProviderFactory.registerTokenProvider(null);
 
@@ -6,7 +6,12 @@ package io.pivotal.android.data;
 import android.test.AndroidTestCase;
 
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 @SuppressWarnings("unchecked")
@@ -44,6 +49,42 @@ public class RemoteStoreTest extends AndroidTestCase {
         Mockito.verify(observerHandler).removeObserver(observer);
     }
 
+    public void testExecuteAllReturnsResponsesInRequestOrder() {
+        final RemoteStore remoteStore = Mockito.spy(new DefaultRemoteStore(null, null));
+        final List<Request> requests = new ArrayList<Request>();
+
+        for (int i = 0; i < 10; i++) {
+            requests.add(new Request(Request.Methods.GET, "object" + i));
+        }
+
+        Mockito.doAnswer(new Answer<Response>() {
+
+            @Override
+            public Response answer(final InvocationOnMock invocation) throws Throwable {
+                return new Response(((Request) invocation.getArguments()[0]).object);
+            }
+        }).when(remoteStore).execute(Mockito.any(Request.class));
+
+        final List<Response> responses = remoteStore.executeAll(requests);
+
+        assertEquals(10, responses.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("object" + i, responses.get(i).object);
+        }
+    }
+
+    public void testExecuteAllConvertsExceptionToFailureResponse() {
+        final RemoteStore remoteStore = Mockito.spy(new DefaultRemoteStore(null, null));
+        final Request request = new Request(Request.Methods.GET, "object");
+
+        Mockito.doThrow(new IllegalStateException()).when(remoteStore).execute(request);
+
+        final List<Response> responses = remoteStore.executeAll(Arrays.asList(request));
+
+        assertTrue(responses.get(0).isFailure());
+        assertEquals("object", responses.get(0).object);
+    }
+
 
     // ==============================================================
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import java.util.UUID;
+
+public class RequestCacheCoalescerTest extends AndroidTestCase {
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY1 = UUID.randomUUID().toString();
+    private static final String KEY2 = UUID.randomUUID().toString();
+
+    public void testConsecutivePutsKeepLastValueAndFirstFallback() {
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value1", "fallback1"));
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value2", "fallback2"));
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value3", "fallback3"));
+
+        final PendingRequest.List<KeyValue> result = new RequestCacheCoalescer<KeyValue>().coalesce(list);
+
+        assertEquals(1, result.size());
+        assertEquals(Request.Methods.PUT, result.get(0).method);
+        assertEquals("value3", result.get(0).object.value);
+        assertEquals("fallback1", result.get(0).fallback.value);
+    }
+
+    public void testDeleteCancelsEarlierPuts() {
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value1", "fallback1"));
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value2", "fallback2"));
+        list.add(createRequest(Request.Methods.DELETE, KEY1, null, "fallback3"));
+
+        final PendingRequest.List<KeyValue> result = new RequestCacheCoalescer<KeyValue>().coalesce(list);
+
+        assertEquals(1, result.size());
+        assertEquals(Request.Methods.DELETE, result.get(0).method);
+        assertEquals("fallback1", result.get(0).fallback.value);
+    }
+
+    public void testDifferentKeysAreKeptInOrder() {
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value1", null));
+        list.add(createRequest(Request.Methods.PUT, KEY2, "value2", null));
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value3", null));
+
+        final PendingRequest.List<KeyValue> result = new RequestCacheCoalescer<KeyValue>().coalesce(list);
+
+        assertEquals(2, result.size());
+        assertEquals(KEY1, result.get(0).object.key);
+        assertEquals("value3", result.get(0).object.value);
+        assertEquals(KEY2, result.get(1).object.key);
+    }
+
+    public void testGetsAreCollapsedAndReplayedAfterWrite() {
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.GET, KEY1, null, null));
+        list.add(createRequest(Request.Methods.PUT, KEY1, "value1", null));
+        list.add(createRequest(Request.Methods.GET, KEY1, null, null));
+
+        final PendingRequest.List<KeyValue> result = new RequestCacheCoalescer<KeyValue>().coalesce(list);
+
+        assertEquals(2, result.size());
+        assertEquals(Request.Methods.PUT, result.get(0).method);
+        assertEquals(Request.Methods.GET, result.get(1).method);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testRequestsWithoutIdentifierArePassedThrough() {
+        final PendingRequest.List list = new PendingRequest.List();
+        list.add(new PendingRequest(new Request(Request.Methods.PUT, new Object(), false)));
+        list.add(new PendingRequest(new Request(Request.Methods.PUT, new Object(), false)));
+
+        final PendingRequest.List result = new RequestCacheCoalescer().coalesce(list);
+
+        assertEquals(list, result);
+    }
+
+    private static PendingRequest<KeyValue> createRequest(final int method, final String key, final String value, final String fallback) {
+        final KeyValue object = new KeyValue(COLLECTION, key, value);
+        final KeyValue fallbackObject = fallback != null ? new KeyValue(COLLECTION, key, fallback) : null;
+        return new PendingRequest<KeyValue>(new Request<KeyValue>(method, object, fallbackObject, false));
+    }
+}
@@ -6,6 +6,14 @@ package io.pivotal.android.data;
 import android.test.AndroidTestCase;
 
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 
 @SuppressWarnings("unchecked")
 public class RequestCacheExecutorTest extends AndroidTestCase {
@@ -88,4 +96,107 @@ public class RequestCacheExecutorTest extends AndroidTestCase {
         Mockito.verify(offlineStore).execute(request);
         Mockito.verify(fallbackStore).execute(Mockito.isA(Request.Put.class));
     }
+
+    public void testPartitionGroupsRequestsByKey() {
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.PUT, "key1", "value1"));
+        list.add(createRequest(Request.Methods.PUT, "key2", "value2"));
+        list.add(createRequest(Request.Methods.DELETE, "key1", null));
+
+        final RequestCacheExecutor<KeyValue> executor = new RequestCacheExecutor<KeyValue>(null, null);
+        final List<List<PendingRequest<KeyValue>>> lanes = executor.partition(list);
+
+        assertEquals(2, lanes.size());
+        assertEquals(2, lanes.get(0).size());
+        assertEquals(Request.Methods.PUT, lanes.get(0).get(0).method);
+        assertEquals(Request.Methods.DELETE, lanes.get(0).get(1).method);
+        assertEquals(1, lanes.get(1).size());
+    }
+
+    public void testParallelismIsAtLeastOne() {
+        final RequestCacheExecutor executor = new RequestCacheExecutor(null, null, 0);
+
+        assertEquals(1, executor.getParallelism());
+    }
+
+    public void testExecuteKeepsOrderWithinEachKey() {
+        final String collection = UUID.randomUUID().toString();
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+
+        for (int i = 0; i < 20; i++) {
+            list.add(createRequest(collection, Request.Methods.PUT, "key" + (i % 4), String.valueOf(i)));
+        }
+
+        final List<KeyValue> executed = Collections.synchronizedList(new ArrayList<KeyValue>());
+        final OfflineStore offlineStore = Mockito.mock(OfflineStore.class);
+        final RequestCacheExecutor<KeyValue> executor = new RequestCacheExecutor<KeyValue>(offlineStore, null, 4);
+
+        Mockito.when(offlineStore.execute(Mockito.any(Request.class))).thenAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(final InvocationOnMock invocation) {
+                final Request<KeyValue> request = (Request<KeyValue>) invocation.getArguments()[0];
+                executed.add(request.object);
+                return new Response<KeyValue>(request.object);
+            }
+        });
+
+        executor.execute(list);
+
+        assertEquals(20, executed.size());
+
+        final int[] last = { -1, -1, -1, -1 };
+        for (final KeyValue object : executed) {
+            final int lane = Integer.parseInt(object.key.substring(3));
+            final int value = Integer.parseInt(object.value);
+            assertTrue(value > last[lane]);
+            last[lane] = value;
+        }
+    }
+
+    public void testExecuteRethrowsLaneFailure() {
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.PUT, "key1", "value1"));
+        list.add(createRequest(0, "key2", null));
+
+        final OfflineStore offlineStore = Mockito.mock(OfflineStore.class);
+        final RequestCacheExecutor<KeyValue> executor = new RequestCacheExecutor<KeyValue>(offlineStore, null, 2);
+
+        Mockito.when(offlineStore.execute(Mockito.any(Request.class))).thenReturn(new Response());
+
+        try {
+            executor.execute(list);
+            fail("Expected exception");
+        } catch (final UnsupportedOperationException ex) {
+            assertNotNull(ex);
+        }
+    }
+
+    public void testExecuteReusesSharedSyncExecutor() {
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.PUT, "key1", "value1"));
+        list.add(createRequest(Request.Methods.PUT, "key2", "value2"));
+        list.add(createRequest(Request.Methods.PUT, "key3", "value3"));
+
+        final OfflineStore offlineStore = Mockito.mock(OfflineStore.class);
+        final RequestCacheExecutor<KeyValue> executor = new RequestCacheExecutor<KeyValue>(offlineStore, null, 2);
+
+        Mockito.when(offlineStore.execute(Mockito.any(Request.class))).thenReturn(new Response());
+
+        final Executor sync = DataExecutors.getSyncExecutor(2);
+
+        executor.execute(list);
+        executor.execute(list);
+
+        assertSame(sync, DataExecutors.getSyncExecutor(2));
+        Mockito.verify(offlineStore, Mockito.times(6)).execute(Mockito.any(Request.class));
+    }
+
+    private static PendingRequest<KeyValue> createRequest(final int method, final String key, final String value) {
+        return createRequest("collection", method, key, value);
+    }
+
+    private static PendingRequest<KeyValue> createRequest(final String collection, final int method, final String key, final String value) {
+        final KeyValue object = new KeyValue(collection, key, value);
+        return new PendingRequest<KeyValue>(new Request<KeyValue>(method, object, false));
+    }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.mockito.Mockito;
 
+import java.io.IOException;
 import java.util.UUID;
 
 public class RequestCacheQueueTest extends AndroidTestCase {
@@ -26,7 +27,7 @@ public class RequestCacheQueueTest extends AndroidTestCase {
         System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
     }
 
-    public void testGetRequests() throws Exception {
+    public void testGetLegacyRequests() throws Exception {
         final ObjectMapper mapper = new ObjectMapper();
 
         final KeyValue keyValue = new KeyValue(COLLECTION, KEY, VALUE);
@@ -40,8 +41,8 @@ public class RequestCacheQueueTest extends AndroidTestCase {
 
         Mockito.when(persistence.getString(Mockito.anyString())).thenReturn(serialized);
 
-        final RequestCacheQueue<KeyValue> queue = new RequestCacheQueue<KeyValue>(persistence);
-        final PendingRequest.List<KeyValue> response = queue.getRequests();
+        final RequestCacheQueue<KeyValue> queue = new RequestCacheQueue<KeyValue>(persistence, null);
+        final PendingRequest.List<KeyValue> response = queue.getLegacyRequests();
 
         final PendingRequest<KeyValue> deserializedItem = response.get(0);
 
@@ -53,49 +54,98 @@ public class RequestCacheQueueTest extends AndroidTestCase {
         Mockito.verify(persistence).getString(REQUEST_KEY);
     }
 
-    public void testPutRequests() throws Exception {
-        final ObjectMapper mapper = new ObjectMapper();
+    @SuppressWarnings("unchecked")
+    public void testGetRequests() throws Exception {
+        final PendingRequest.List list = new PendingRequest.List();
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
 
-        final KeyValue keyValue = new KeyValue(COLLECTION, KEY, VALUE);
-        final Request<KeyValue> request = new Request<KeyValue>(METHOD, keyValue, false);
-        final PendingRequest<KeyValue> pendingRequest = new PendingRequest<KeyValue>(request);
-        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
-        list.add(pendingRequest);
+        Mockito.when(journal.read()).thenReturn(list);
 
-        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
-        final String serialized = mapper.writeValueAsString(list);
+        final RequestCacheQueue queue = new RequestCacheQueue(null, journal);
+
+        assertEquals(list, queue.getRequests());
+
+        Mockito.verify(journal).read();
+    }
 
-        final RequestCacheQueue<KeyValue> queue = new RequestCacheQueue<KeyValue>(persistence);
+    @SuppressWarnings("unchecked")
+    public void testPutRequests() throws Exception {
+        final PendingRequest.List list = new PendingRequest.List();
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
+
+        final RequestCacheQueue queue = new RequestCacheQueue(null, journal);
         queue.putRequests(list);
 
-        Mockito.verify(persistence).putString(REQUEST_KEY, serialized);
+        Mockito.verify(journal).write(list);
     }
 
     @SuppressWarnings("unchecked")
-    public void testAdd() {
+    public void testAdd() throws Exception {
         final Object object = new Object();
         final Request request = new Request(METHOD, object, false);
         final PendingRequest pendingRequest = new PendingRequest(request);
-        final PendingRequest.List list = Mockito.mock(PendingRequest.List.class);
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
 
-        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(null));
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(null, journal));
 
-        Mockito.stub(queue.getRequests()).toReturn(list);
-        Mockito.doNothing().when(queue).putRequests(Mockito.any(PendingRequest.List.class));
+        Mockito.doNothing().when(queue).migrateLegacyRequests();
 
         queue.add(pendingRequest);
 
-        Mockito.verify(queue).getRequests();
-        Mockito.verify(list).add(pendingRequest);
-        Mockito.verify(queue).putRequests(list);
+        Mockito.verify(queue).migrateLegacyRequests();
+        Mockito.verify(journal).append(pendingRequest);
+        Mockito.verify(journal, Mockito.never()).write(Mockito.any(PendingRequest.List.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testAddCompactsJournalAfterInterval() throws Exception {
+        final PendingRequest pendingRequest = new PendingRequest(new Request(METHOD, new Object(), false));
+        final PendingRequest.List list = new PendingRequest.List();
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
+
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(null, journal));
+
+        Mockito.doNothing().when(queue).migrateLegacyRequests();
+        Mockito.when(journal.getAppendCount()).thenReturn(64);
+        Mockito.when(journal.read()).thenReturn(list);
+
+        queue.add(pendingRequest);
+
+        Mockito.verify(journal).append(pendingRequest);
+        Mockito.verify(journal).write(list);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testAddWaitsForJournalToOutgrowLastCompaction() throws Exception {
+        final PendingRequest pendingRequest = new PendingRequest(new Request(METHOD, new Object(), false));
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
+
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(null, journal));
+
+        Mockito.doNothing().when(queue).migrateLegacyRequests();
+        Mockito.when(journal.getAppendCount()).thenReturn(64);
+        Mockito.when(journal.getWrittenCount()).thenReturn(1000);
+
+        queue.add(pendingRequest);
+
+        Mockito.verify(journal, Mockito.never()).read();
+        Mockito.verify(journal, Mockito.never()).write(Mockito.any(PendingRequest.List.class));
+
+        Mockito.when(journal.getAppendCount()).thenReturn(1000);
+        Mockito.when(journal.read()).thenReturn(new PendingRequest.List());
+
+        queue.add(pendingRequest);
+
+        Mockito.verify(journal).write(Mockito.any(PendingRequest.List.class));
     }
 
     public void testEmpty() {
         final PendingRequest.List list = Mockito.mock(PendingRequest.List.class);
 
-        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(null));
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(null, null));
 
-        Mockito.stub(queue.getRequests()).toReturn(list);
+        Mockito.doNothing().when(queue).migrateLegacyRequests();
+        Mockito.doReturn(list).when(queue).getRequests();
         Mockito.doNothing().when(queue).deleteRequests();
 
         final PendingRequest.List result = queue.empty();
@@ -107,11 +157,86 @@ public class RequestCacheQueueTest extends AndroidTestCase {
     }
 
     public void testDeleteRequests() {
-        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
 
-        final RequestCacheQueue queue = new RequestCacheQueue(persistence);
+        final RequestCacheQueue queue = new RequestCacheQueue(null, journal);
         queue.deleteRequests();
 
+        Mockito.verify(journal).delete();
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testMigrateLegacyRequestsMovesThemIntoJournal() throws Exception {
+        final PendingRequest.List list = new PendingRequest.List();
+        list.add(new PendingRequest(new Request(METHOD, new Object(), false)));
+
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(persistence, journal));
+
+        Mockito.doReturn(list).when(queue).getLegacyRequests();
+        Mockito.when(journal.exists()).thenReturn(false);
+
+        queue.migrateLegacyRequests();
+        queue.migrateLegacyRequests();
+
+        Mockito.verify(queue).getLegacyRequests();
+        Mockito.verify(journal).appendAll(list);
+        Mockito.verify(persistence).deleteString(REQUEST_KEY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testMigrateLegacyRequestsAppendsToExistingJournal() throws Exception {
+        final PendingRequest.List list = new PendingRequest.List();
+        list.add(new PendingRequest(new Request(METHOD, new Object(), false)));
+
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(persistence, journal));
+
+        Mockito.doReturn(list).when(queue).getLegacyRequests();
+        Mockito.when(journal.exists()).thenReturn(true);
+
+        queue.migrateLegacyRequests();
+
+        Mockito.verify(journal).appendAll(list);
+        Mockito.verify(journal, Mockito.never()).write(Mockito.any(PendingRequest.List.class));
         Mockito.verify(persistence).deleteString(REQUEST_KEY);
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    public void testMigrateLegacyRequestsKeepsLegacyQueueWhenAppendFails() throws Exception {
+        final PendingRequest.List list = new PendingRequest.List();
+        list.add(new PendingRequest(new Request(METHOD, new Object(), false)));
+
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(persistence, journal));
+
+        Mockito.doReturn(list).when(queue).getLegacyRequests();
+        Mockito.doThrow(new IOException()).doNothing().when(journal).appendAll(list);
+
+        queue.migrateLegacyRequests();
+
+        Mockito.verify(persistence, Mockito.never()).deleteString(REQUEST_KEY);
+
+        queue.migrateLegacyRequests();
+
+        Mockito.verify(journal, Mockito.times(2)).appendAll(list);
+        Mockito.verify(persistence).deleteString(REQUEST_KEY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testMigrateLegacyRequestsWithNoLegacyQueue() throws Exception {
+        final DataPersistence persistence = Mockito.mock(DataPersistence.class);
+        final RequestJournal journal = Mockito.mock(RequestJournal.class);
+        final RequestCacheQueue queue = Mockito.spy(new RequestCacheQueue(persistence, journal));
+
+        Mockito.doReturn(new PendingRequest.List()).when(queue).getLegacyRequests();
+
+        queue.migrateLegacyRequests();
+
+        Mockito.verify(journal, Mockito.never()).write(Mockito.any(PendingRequest.List.class));
+        Mockito.verify(persistence, Mockito.never()).deleteString(REQUEST_KEY);
+    }
+}
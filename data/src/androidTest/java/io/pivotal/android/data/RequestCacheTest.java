@@ -42,4 +42,22 @@ public class RequestCacheTest extends AndroidTestCase {
 
         Mockito.verify(executor).execute(list);
     }
+
+    public void testDefaultExecutePendingCoalescesRequests() {
+        final RequestCacheQueue queue = Mockito.mock(RequestCacheQueue.class);
+        final RequestCacheExecutor executor = Mockito.mock(RequestCacheExecutor.class);
+        final RequestCacheCoalescer coalescer = Mockito.mock(RequestCacheCoalescer.class);
+        final PendingRequest.List list = new PendingRequest.List();
+        final PendingRequest.List coalesced = new PendingRequest.List();
+        coalesced.add(Mockito.mock(PendingRequest.class));
+        final RequestCache.Default defaultCache = new RequestCache.Default(queue, executor, coalescer);
+
+        Mockito.when(queue.empty()).thenReturn(list);
+        Mockito.when(coalescer.coalesce(list)).thenReturn(coalesced);
+
+        defaultCache.executePending();
+
+        Mockito.verify(coalescer).coalesce(list);
+        Mockito.verify(executor).execute(coalesced);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.apache.http.client.methods.AbortableHttpRequest;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@SuppressWarnings("unchecked")
+public class RequestFutureTest extends AndroidTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testRunExecutesRequest() throws Exception {
+        final DataStore<Object> store = Mockito.mock(DataStore.class);
+        final Request<Object> request = new Request<Object>();
+        final Response<Object> response = new Response<Object>(new Object());
+        final RequestFuture<Object> future = new RequestFuture<Object>(store, request);
+
+        Mockito.when(store.execute(request)).thenReturn(response);
+
+        future.run();
+
+        assertEquals(response, future.get());
+        Mockito.verify(store).execute(request);
+    }
+
+    public void testNestedRunRestoresOuterFuture() throws Exception {
+        final DataStore<Object> store = Mockito.mock(DataStore.class);
+        final Request<Object> request = new Request<Object>();
+        final RequestFuture<Object> inner = new RequestFuture<Object>(store, new Request<Object>());
+        final RequestFuture<Object> outer = new RequestFuture<Object>(store, request);
+        final RequestFuture<?>[] current = new RequestFuture<?>[1];
+
+        Mockito.when(store.execute(request)).thenAnswer(new Answer<Response<Object>>() {
+
+            @Override
+            public Response<Object> answer(final InvocationOnMock invocation) throws Throwable {
+                inner.run();
+                current[0] = RequestFuture.current();
+                return null;
+            }
+        });
+
+        outer.run();
+        outer.get();
+
+        assertEquals(outer, current[0]);
+        assertNull(RequestFuture.current());
+    }
+
+    public void testCancelBeforeRunDropsRequest() {
+        final DataStore<Object> store = Mockito.mock(DataStore.class);
+        final RequestFuture<Object> future = new RequestFuture<Object>(store, new Request<Object>());
+
+        assertTrue(future.cancel(false));
+
+        future.run();
+
+        Mockito.verifyZeroInteractions(store);
+    }
+
+    public void testCancelDuringRunAbortsHttpRequest() throws Exception {
+        final DataStore<Object> store = Mockito.mock(DataStore.class);
+        final AbortableHttpRequest httpRequest = Mockito.mock(AbortableHttpRequest.class);
+        final RequestFuture<Object> future = new RequestFuture<Object>(store, new Request<Object>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        Mockito.when(store.execute(Mockito.any(Request.class))).thenAnswer(new Answer<Response<Object>>() {
+
+            @Override
+            public Response<Object> answer(final InvocationOnMock invocation) throws Throwable {
+                RequestFuture.current().setAbortable(httpRequest);
+                started.countDown();
+                release.await(1, TimeUnit.SECONDS);
+                return null;
+            }
+        });
+
+        final Thread thread = new Thread(future);
+        thread.start();
+
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        assertTrue(future.cancel(false));
+
+        release.countDown();
+        thread.join(1000);
+
+        Mockito.verify(httpRequest).abort();
+        assertNull(RequestFuture.current());
+    }
+
+    public void testAbortableRegisteredAfterCancelIsAborted() {
+        final AbortableHttpRequest httpRequest = Mockito.mock(AbortableHttpRequest.class);
+        final RequestFuture<Object> future = new RequestFuture<Object>(Mockito.mock(DataStore.class), new Request<Object>());
+
+        future.cancel(false);
+        future.setAbortable(httpRequest);
+
+        Mockito.verify(httpRequest).abort();
+    }
+
+    public void testGetWithTimeoutCancels() throws Exception {
+        final RequestFuture<Object> future = new RequestFuture<Object>(Mockito.mock(DataStore.class), new Request<Object>());
+
+        try {
+            future.get(10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (final TimeoutException e) {
+            assertTrue(future.isCancelled());
+        }
+    }
+
+    public void testThenRunsContinuationWithResponse() throws Exception {
+        final DataStore<Object> store = Mockito.mock(DataStore.class);
+        final Request<Object> request = new Request<Object>();
+        final Response<Object> response = new Response<Object>("value");
+        final RequestFuture<Object> future = new RequestFuture<Object>(store, request);
+
+        Mockito.when(store.execute(request)).thenReturn(response);
+
+        final FutureTask<String> next = future.then(new RequestFuture.Continuation<Object, String>() {
+
+            @Override
+            public String then(final Response<Object> response) throws Exception {
+                return response.object + "!";
+            }
+        });
+
+        assertFalse(next.isDone());
+
+        future.run();
+
+        assertEquals("value!", next.get());
+    }
+
+    public void testThenOnCompletedFutureRunsImmediately() throws Exception {
+        final DataStore<Object> store = Mockito.mock(DataStore.class);
+        final Request<Object> request = new Request<Object>();
+        final RequestFuture<Object> future = new RequestFuture<Object>(store, request);
+
+        Mockito.when(store.execute(request)).thenReturn(new Response<Object>("value"));
+
+        future.run();
+
+        final FutureTask<Object> next = future.then(new RequestFuture.Continuation<Object, Object>() {
+
+            @Override
+            public Object then(final Response<Object> response) throws Exception {
+                return response.object;
+            }
+        });
+
+        assertTrue(next.isDone());
+        assertEquals("value", next.get());
+    }
+
+    public void testThenIsCancelledWithFuture() throws Exception {
+        final RequestFuture<Object> future = new RequestFuture<Object>(Mockito.mock(DataStore.class), new Request<Object>());
+
+        final FutureTask<Object> next = future.then(new RequestFuture.Continuation<Object, Object>() {
+
+            @Override
+            public Object then(final Response<Object> response) throws Exception {
+                return null;
+            }
+        });
+
+        future.cancel(true);
+
+        assertTrue(next.isCancelled());
+
+        try {
+            next.get();
+            fail();
+        } catch (final CancellationException e) {
+            // expected
+        }
+    }
+}
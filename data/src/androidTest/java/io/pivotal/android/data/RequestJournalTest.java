@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.UUID;
+
+public class RequestJournalTest extends AndroidTestCase {
+
+    private static final String COLLECTION = UUID.randomUUID().toString();
+    private static final String KEY = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+    private static final String FALLBACK = UUID.randomUUID().toString();
+
+    private File mFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mFile = new File(mContext.getCacheDir(), UUID.randomUUID().toString());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mFile.delete();
+    }
+
+    public void testOpenReturnsSameJournalForFile() {
+        assertSame(RequestJournal.open(mFile), RequestJournal.open(mFile));
+    }
+
+    public void testReadWithNoFileReturnsEmptyList() throws Exception {
+        final RequestJournal<KeyValue> journal = new RequestJournal<KeyValue>(mFile);
+
+        assertFalse(journal.exists());
+        assertTrue(journal.read().isEmpty());
+    }
+
+    public void testAppendThenRead() throws Exception {
+        final RequestJournal<KeyValue> journal = new RequestJournal<KeyValue>(mFile);
+
+        journal.append(createRequest(Request.Methods.PUT));
+        journal.append(createRequest(Request.Methods.DELETE));
+
+        final PendingRequest.List<KeyValue> requests = journal.read();
+
+        assertEquals(2, requests.size());
+        assertEquals(Request.Methods.PUT, requests.get(0).method);
+        assertEquals(Request.Methods.DELETE, requests.get(1).method);
+        assertEquals(COLLECTION, requests.get(0).object.collection);
+        assertEquals(KEY, requests.get(0).object.key);
+        assertEquals(VALUE, requests.get(0).object.value);
+        assertEquals(FALLBACK, requests.get(0).fallback.value);
+        assertEquals(2, journal.getAppendCount());
+    }
+
+    public void testWriteReplacesContents() throws Exception {
+        final RequestJournal<KeyValue> journal = new RequestJournal<KeyValue>(mFile);
+
+        journal.append(createRequest(Request.Methods.PUT));
+        journal.append(createRequest(Request.Methods.PUT));
+
+        final PendingRequest.List<KeyValue> list = new PendingRequest.List<KeyValue>();
+        list.add(createRequest(Request.Methods.DELETE));
+        journal.write(list);
+
+        final PendingRequest.List<KeyValue> requests = journal.read();
+
+        assertEquals(1, requests.size());
+        assertEquals(Request.Methods.DELETE, requests.get(0).method);
+        assertEquals(0, journal.getAppendCount());
+        assertEquals(1, journal.getWrittenCount());
+    }
+
+    public void testDeleteRemovesFile() throws Exception {
+        final RequestJournal<KeyValue> journal = new RequestJournal<KeyValue>(mFile);
+
+        journal.append(createRequest(Request.Methods.PUT));
+        journal.delete();
+
+        assertFalse(mFile.exists());
+        assertTrue(journal.read().isEmpty());
+    }
+
+    public void testReadIgnoresTornRecord() throws Exception {
+        final RequestJournal<KeyValue> journal = new RequestJournal<KeyValue>(mFile);
+
+        journal.append(createRequest(Request.Methods.PUT));
+
+        final FileOutputStream stream = new FileOutputStream(mFile, true);
+        stream.write(new byte[] { 0, 0, 1, 0, '{' });
+        stream.close();
+
+        assertEquals(1, journal.read().size());
+    }
+
+    public void testAppendRecoversTornJournal() throws Exception {
+        new RequestJournal<KeyValue>(mFile).append(createRequest(Request.Methods.PUT));
+
+        final FileOutputStream stream = new FileOutputStream(mFile, true);
+        stream.write(new byte[] { 0, 0, 1, 0, '{' });
+        stream.close();
+
+        final RequestJournal<KeyValue> journal = new RequestJournal<KeyValue>(mFile);
+        journal.append(createRequest(Request.Methods.DELETE));
+
+        final PendingRequest.List<KeyValue> requests = journal.read();
+
+        assertEquals(2, requests.size());
+        assertEquals(Request.Methods.DELETE, requests.get(1).method);
+    }
+
+    public void testReadsJsonJournal() throws Exception {
+        writeJsonJournal(createRequest(Request.Methods.PUT));
+
+        final PendingRequest.List<KeyValue> requests = new RequestJournal<KeyValue>(mFile).read();
+
+        assertEquals(1, requests.size());
+        assertEquals(Request.Methods.PUT, requests.get(0).method);
+        assertEquals(VALUE, requests.get(0).object.value);
+        assertEquals(FALLBACK, requests.get(0).fallback.value);
+    }
+
+    public void testAppendMigratesJsonJournal() throws Exception {
+        writeJsonJournal(createRequest(Request.Methods.PUT));
+
+        final RequestJournal<KeyValue> journal = new RequestJournal<KeyValue>(mFile);
+        journal.append(createRequest(Request.Methods.DELETE));
+
+        final PendingRequest.List<KeyValue> requests = journal.read();
+
+        assertEquals(2, requests.size());
+        assertEquals(Request.Methods.PUT, requests.get(0).method);
+        assertEquals(Request.Methods.DELETE, requests.get(1).method);
+    }
+
+    private void writeJsonJournal(final PendingRequest<KeyValue> request) throws Exception {
+        final byte[] record = new PendingRequestCodec.Json<KeyValue>().encode(request);
+        final DataOutputStream output = new DataOutputStream(new FileOutputStream(mFile));
+        output.writeInt(RequestJournal.MAGIC);
+        output.writeInt(RequestJournal.JSON_VERSION);
+        output.writeInt(record.length);
+        output.write(record);
+        output.close();
+    }
+
+    private static PendingRequest<KeyValue> createRequest(final int method) {
+        final KeyValue object = new KeyValue(COLLECTION, KEY, VALUE);
+        final KeyValue fallback = new KeyValue(COLLECTION, KEY, FALLBACK);
+        return new PendingRequest<KeyValue>(new Request<KeyValue>(method, object, fallback, false));
+    }
+}
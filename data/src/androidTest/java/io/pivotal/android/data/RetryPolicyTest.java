@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+public class RetryPolicyTest extends AndroidTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        RetryPolicy.setPolicy(Request.Methods.DELETE, null);
+    }
+
+    public void testGetDelayGrowsExponentiallyUpToMax() {
+        final RetryPolicy policy = new RetryPolicy(5, 100, 350, 0, true, false);
+
+        assertEquals(100, policy.getDelay(1));
+        assertEquals(200, policy.getDelay(2));
+        assertEquals(350, policy.getDelay(3));
+        assertEquals(350, policy.getDelay(40));
+    }
+
+    public void testGetDelayAppliesJitterWithinBounds() {
+        final RetryPolicy policy = new RetryPolicy(5, 1000, 8000, 0.5, true, false);
+
+        for (int i = 0; i < 100; i++) {
+            final long delay = policy.getDelay(2);
+            assertTrue(delay >= 1000 && delay <= 2000);
+        }
+    }
+
+    public void testRetryableStatusRequiresIdempotency() {
+        final RetryPolicy idempotent = new RetryPolicy(3, 0, 0, 0, true, false);
+        final RetryPolicy nonIdempotent = new RetryPolicy(3, 0, 0, 0, false, false);
+
+        assertTrue(idempotent.isRetryable(503));
+        assertFalse(idempotent.isRetryable(404));
+        assertFalse(nonIdempotent.isRetryable(503));
+    }
+
+    public void testConnectionFailuresAreAlwaysRetryable() {
+        final RetryPolicy policy = new RetryPolicy(3, 0, 0, 0, false, false);
+
+        assertTrue(policy.isRetryable(new ConnectException()));
+        assertFalse(policy.isRetryable(new SocketTimeoutException()));
+        assertFalse(policy.isRetryable(new IOException()));
+    }
+
+    public void testHasAttemptsLeft() {
+        final RetryPolicy policy = new RetryPolicy(2, 0, 0, 0, true, false);
+
+        assertTrue(policy.hasAttemptsLeft(1));
+        assertFalse(policy.hasAttemptsLeft(2));
+    }
+
+    public void testSetPolicyOverridesDefault() {
+        final RetryPolicy policy = new RetryPolicy(5, 0, 0, 0, false, true);
+
+        RetryPolicy.setPolicy(Request.Methods.DELETE, policy);
+        assertSame(policy, RetryPolicy.getPolicy(Request.Methods.DELETE));
+
+        RetryPolicy.setPolicy(Request.Methods.DELETE, null);
+        assertEquals(RetryPolicy.Defaults.MAX_ATTEMPTS, RetryPolicy.getPolicy(Request.Methods.DELETE).getMaxAttempts());
+    }
+
+    public void testDefaultPolicyIsIdempotentOnlyForGets() {
+        assertTrue(RetryPolicy.getPolicy(Request.Methods.GET).isIdempotent());
+        assertFalse(RetryPolicy.getPolicy(Request.Methods.PUT).isIdempotent());
+        assertFalse(RetryPolicy.getPolicy(Request.Methods.DELETE).isIdempotent());
+    }
+}
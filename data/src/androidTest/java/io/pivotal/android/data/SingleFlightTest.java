@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SingleFlightTest extends AndroidTestCase {
+
+    private static final String KEY = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testExecuteReturnsCallResult() throws Exception {
+        final SingleFlight<String> flight = new SingleFlight<String>();
+
+        final String value = flight.execute(KEY, new SingleFlight.Call<String>() {
+
+            @Override
+            public String call() throws Exception {
+                return VALUE;
+            }
+        });
+
+        assertEquals(VALUE, value);
+        assertEquals(1, flight.getExecutedCount());
+        assertEquals(0, flight.getSharedCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    public void testSequentialCallsAreNotShared() throws Exception {
+        final SingleFlight<String> flight = new SingleFlight<String>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final SingleFlight.Call<String> call = new SingleFlight.Call<String>() {
+
+            @Override
+            public String call() throws Exception {
+                calls.incrementAndGet();
+                return VALUE;
+            }
+        };
+
+        flight.execute(KEY, call);
+        flight.execute(KEY, call);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, flight.getSharedCount());
+    }
+
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        final SingleFlight<String> flight = new SingleFlight<String>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicReference<String> joined = new AtomicReference<String>();
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+        final Thread leader = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    flight.execute(KEY, new SingleFlight.Call<String>() {
+
+                        @Override
+                        public String call() throws Exception {
+                            calls.incrementAndGet();
+                            started.countDown();
+                            release.await();
+                            return VALUE;
+                        }
+                    });
+                } catch (final Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        final Thread follower = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    joined.set(flight.execute(KEY, new SingleFlight.Call<String>() {
+
+                        @Override
+                        public String call() throws Exception {
+                            calls.incrementAndGet();
+                            return null;
+                        }
+                    }));
+                } catch (final Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        leader.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        follower.start();
+        final boolean shared = awaitSharedCount(flight, 1);
+
+        release.countDown();
+        assertTrue(shared);
+        leader.join(1000);
+        follower.join(1000);
+
+        assertNull(failure.get());
+        assertEquals(1, calls.get());
+        assertEquals(VALUE, joined.get());
+        assertEquals(1, flight.getExecutedCount());
+        assertEquals(1, flight.getSharedCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    public void testConcurrentCallsShareFailure() throws Exception {
+        final SingleFlight<String> flight = new SingleFlight<String>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RuntimeException exception = new RuntimeException();
+        final AtomicReference<Exception> joined = new AtomicReference<Exception>();
+
+        final Thread leader = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    flight.execute(KEY, new SingleFlight.Call<String>() {
+
+                        @Override
+                        public String call() throws Exception {
+                            started.countDown();
+                            release.await();
+                            throw exception;
+                        }
+                    });
+                } catch (final Exception e) {
+                    // expected
+                }
+            }
+        };
+
+        final Thread follower = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    flight.execute(KEY, null);
+                } catch (final Exception e) {
+                    joined.set(e);
+                }
+            }
+        };
+
+        leader.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        follower.start();
+        final boolean shared = awaitSharedCount(flight, 1);
+
+        release.countDown();
+        assertTrue(shared);
+        leader.join(1000);
+        follower.join(1000);
+
+        assertEquals(exception, joined.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFollowerRetriesWhenLeaderIsCancelled() throws Exception {
+        final SingleFlight<String> flight = new SingleFlight<String>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicReference<Object> joined = new AtomicReference<Object>();
+
+        final DataStore<Object> store = Mockito.mock(DataStore.class);
+
+        Mockito.when(store.execute(Mockito.any(Request.class))).thenAnswer(new Answer<Response<Object>>() {
+
+            @Override
+            public Response<Object> answer(final InvocationOnMock invocation) throws Throwable {
+                flight.execute(KEY, new SingleFlight.Call<String>() {
+
+                    @Override
+                    public String call() throws Exception {
+                        started.countDown();
+                        release.await();
+                        throw new IOException();
+                    }
+                });
+                return null;
+            }
+        });
+
+        final RequestFuture<Object> leader = new RequestFuture<Object>(store, new Request<Object>());
+
+        final Thread follower = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    joined.set(flight.execute(KEY, new SingleFlight.Call<String>() {
+
+                        @Override
+                        public String call() throws Exception {
+                            return VALUE;
+                        }
+                    }));
+                } catch (final Exception e) {
+                    joined.set(e);
+                }
+            }
+        };
+
+        final Thread thread = new Thread(leader);
+        thread.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        follower.start();
+        final boolean shared = awaitSharedCount(flight, 1);
+
+        leader.cancel(false);
+        release.countDown();
+        assertTrue(shared);
+        thread.join(1000);
+        follower.join(1000);
+
+        assertEquals(VALUE, joined.get());
+        assertEquals(2, flight.getExecutedCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    private static boolean awaitSharedCount(final SingleFlight<?> flight, final long count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 1000;
+        while (flight.getSharedCount() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class StreamUtilsTest extends AndroidTestCase {
+
+    private static final String VALUE = "line one\nline two\r\né中😀";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+    }
+
+    public void testConsumeAndClosePreservesNewlinesAndDecodesUtf8() throws Exception {
+        final InputStream stream = new ByteArrayInputStream(VALUE.getBytes("UTF-8"));
+
+        assertEquals(VALUE, StreamUtils.consumeAndClose(stream));
+    }
+
+    public void testReadBytesWithExactLength() throws Exception {
+        final byte[] data = VALUE.getBytes("UTF-8");
+
+        assertTrue(Arrays.equals(data, StreamUtils.readBytes(new ByteArrayInputStream(data), data.length)));
+    }
+
+    public void testReadBytesWithUnderstatedLength() throws Exception {
+        final byte[] data = new byte[10000];
+        Arrays.fill(data, (byte) 7);
+
+        assertTrue(Arrays.equals(data, StreamUtils.readBytes(new ByteArrayInputStream(data), 10)));
+    }
+
+    public void testReadBytesWithOverstatedLength() throws Exception {
+        final byte[] data = VALUE.getBytes("UTF-8");
+
+        assertTrue(Arrays.equals(data, StreamUtils.readBytes(new ByteArrayInputStream(data), 1000)));
+    }
+
+    public void testReadBytesWithEmptyStream() throws Exception {
+        assertEquals(0, StreamUtils.readBytes(new ByteArrayInputStream(new byte[0]), 0).length);
+        assertEquals(0, StreamUtils.readBytes(new ByteArrayInputStream(new byte[0]), -1).length);
+    }
+
+    public void testConsumeBytesAndCloseClosesStream() throws Exception {
+        final InputStream stream = Mockito.mock(InputStream.class);
+
+        Mockito.when(stream.read()).thenReturn(-1);
+        Mockito.when(stream.read(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt())).thenReturn(-1);
+
+        StreamUtils.consumeBytesAndClose(stream, -1);
+
+        Mockito.verify(stream).close();
+    }
+}
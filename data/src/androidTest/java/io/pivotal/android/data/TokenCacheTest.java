@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+import android.test.AndroidTestCase;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TokenCacheTest extends AndroidTestCase {
+
+    private static final String TOKEN = UUID.randomUUID().toString();
+    private static final String NEW_TOKEN = UUID.randomUUID().toString();
+    private static final long LIFETIME = 5 * 60 * 1000;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("dexmaker.dexcache", mContext.getCacheDir().getPath());
+
+        TokenCache.getInstance().setRefreshAhead(TokenCache.Timeouts.REFRESH_AHEAD);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+
+        TokenProviderFactory.registerTokenProvider(null);
+        DataExecutors.setNetworkExecutor(null);
+        TokenCache.getInstance().setRefreshAhead(TokenCache.Timeouts.REFRESH_AHEAD);
+    }
+
+    public void testGetTokenWithNoProviderReturnsNull() {
+        TokenProviderFactory.registerTokenProvider(null);
+
+        assertNull(TokenCache.getInstance().getToken(mContext));
+    }
+
+    public void testGetTokenServesCachedToken() {
+        final ExpiringTokenProvider provider = createExpiringProvider();
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN);
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+
+        Mockito.verify(provider, Mockito.times(1)).provideAccessToken(mContext);
+    }
+
+    public void testGetTokenFetchesAgainAfterExpiry() {
+        final ExpiringTokenProvider provider = Mockito.mock(ExpiringTokenProvider.class);
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN);
+        Mockito.when(provider.getAccessTokenExpiration(Mockito.any(Context.class))).thenReturn(System.currentTimeMillis() - 1);
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        TokenCache.getInstance().getToken(mContext);
+        TokenCache.getInstance().getToken(mContext);
+
+        Mockito.verify(provider, Mockito.times(2)).provideAccessToken(mContext);
+    }
+
+    public void testRegisterTokenProviderClearsCache() {
+        final ExpiringTokenProvider first = createExpiringProvider();
+        final ExpiringTokenProvider second = createExpiringProvider();
+        Mockito.when(first.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN);
+        Mockito.when(second.provideAccessToken(Mockito.any(Context.class))).thenReturn(NEW_TOKEN);
+
+        TokenProviderFactory.registerTokenProvider(first);
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+
+        TokenProviderFactory.registerTokenProvider(second);
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().getToken(mContext));
+    }
+
+    public void testRefreshInvalidatesStaleTokenOnce() {
+        final ExpiringTokenProvider provider = createExpiringProvider();
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN, NEW_TOKEN);
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().refresh(mContext, TOKEN));
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().refresh(mContext, TOKEN));
+
+        Mockito.verify(provider, Mockito.times(1)).invalidateAccessToken(mContext);
+        Mockito.verify(provider, Mockito.times(2)).provideAccessToken(mContext);
+    }
+
+    public void testConcurrentRefreshRunsOnce() throws Exception {
+        final ExpiringTokenProvider provider = createExpiringProvider();
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN, NEW_TOKEN);
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        TokenCache.getInstance().getToken(mContext);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<Thread>();
+        final List<String> tokens = new ArrayList<String>();
+
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    final String token = TokenCache.getInstance().refresh(mContext, TOKEN);
+                    synchronized (tokens) {
+                        tokens.add(token);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8, tokens.size());
+        for (final String token : tokens) {
+            assertEquals(NEW_TOKEN, token);
+        }
+        Mockito.verify(provider, Mockito.times(1)).invalidateAccessToken(mContext);
+    }
+
+    public void testGetTokenRefreshesAheadOfExpiry() {
+        final ExpiringTokenProvider provider = createExpiringProvider();
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN, NEW_TOKEN);
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        DataExecutors.setNetworkExecutor(new Executor() {
+
+            @Override
+            public void execute(final Runnable command) {
+                command.run();
+            }
+        });
+
+        TokenCache.getInstance().setRefreshAhead(LIFETIME);
+
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+
+        TokenCache.getInstance().setRefreshAhead(0);
+
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().getToken(mContext));
+        Mockito.verify(provider, Mockito.never()).invalidateAccessToken(mContext);
+    }
+
+    public void testGetTokenDoesNotCacheTokensWithoutProviderExpiry() {
+        final TokenProvider provider = Mockito.mock(TokenProvider.class);
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN, NEW_TOKEN);
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().getToken(mContext));
+
+        Mockito.verify(provider, Mockito.times(2)).provideAccessToken(mContext);
+        Mockito.verify(provider, Mockito.never()).invalidateAccessToken(mContext);
+    }
+
+    public void testGetTokenDoesNotCacheTokensWithUnknownExpiry() {
+        final ExpiringTokenProvider provider = Mockito.mock(ExpiringTokenProvider.class);
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenReturn(TOKEN, NEW_TOKEN);
+        Mockito.when(provider.getAccessTokenExpiration(Mockito.any(Context.class))).thenReturn(0L);
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().getToken(mContext));
+    }
+
+    public void testRefreshWithoutProviderExpiryInvalidatesStaleTokenOnce() {
+        final TokenProvider provider = Mockito.mock(TokenProvider.class);
+        final AtomicBoolean invalidated = new AtomicBoolean();
+
+        Mockito.when(provider.provideAccessToken(Mockito.any(Context.class))).thenAnswer(new Answer<String>() {
+
+            @Override
+            public String answer(final InvocationOnMock invocation) {
+                return invalidated.get() ? NEW_TOKEN : TOKEN;
+            }
+        });
+        Mockito.doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                invalidated.set(true);
+                return null;
+            }
+        }).when(provider).invalidateAccessToken(Mockito.any(Context.class));
+        TokenProviderFactory.registerTokenProvider(provider);
+
+        assertEquals(TOKEN, TokenCache.getInstance().getToken(mContext));
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().refresh(mContext, TOKEN));
+        assertEquals(NEW_TOKEN, TokenCache.getInstance().refresh(mContext, TOKEN));
+
+        Mockito.verify(provider, Mockito.times(1)).invalidateAccessToken(mContext);
+    }
+
+    private static ExpiringTokenProvider createExpiringProvider() {
+        final ExpiringTokenProvider provider = Mockito.mock(ExpiringTokenProvider.class);
+        Mockito.when(provider.getAccessTokenExpiration(Mockito.any(Context.class))).thenReturn(System.currentTimeMillis() + LIFETIME);
+        return provider;
+    }
+}
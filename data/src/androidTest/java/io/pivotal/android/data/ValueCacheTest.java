@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.test.AndroidTestCase;
+
+import java.util.UUID;
+
+public class ValueCacheTest extends AndroidTestCase {
+
+    private static final String KEY1 = UUID.randomUUID().toString();
+    private static final String KEY2 = UUID.randomUUID().toString();
+    private static final String KEY3 = UUID.randomUUID().toString();
+    private static final String VALUE = UUID.randomUUID().toString();
+
+    public void testGetRecordsHitsAndMisses() {
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+
+        assertNull(cache.get(KEY1));
+
+        cache.put(KEY1, VALUE);
+
+        assertEquals(VALUE, cache.get(KEY1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    public void testPutNullStoresEmptyValue() {
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+
+        cache.put(KEY1, null);
+
+        assertEquals("", cache.get(KEY1));
+    }
+
+    public void testPutIfAbsentKeepsExistingValue() {
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+
+        cache.put(KEY1, VALUE);
+        cache.putIfAbsent(KEY1, "stale");
+
+        assertEquals(VALUE, cache.get(KEY1));
+    }
+
+    public void testSizeIsTrackedInBytes() {
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+
+        cache.put(KEY1, VALUE);
+        final int size = cache.getSize();
+        cache.put(KEY1, VALUE + VALUE);
+
+        assertEquals(size + 2 * VALUE.length(), cache.getSize());
+
+        cache.remove(KEY1);
+
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        final ValueCache probe = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+        probe.put(KEY1, VALUE);
+
+        final ValueCache cache = new ValueCache(probe.getSize() * 2);
+
+        cache.put(KEY1, VALUE);
+        cache.put(KEY2, VALUE);
+        cache.get(KEY1);
+        cache.put(KEY3, VALUE);
+
+        assertEquals(VALUE, cache.get(KEY1));
+        assertNull(cache.get(KEY2));
+        assertEquals(VALUE, cache.get(KEY3));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    public void testValueLargerThanCacheIsNotStored() {
+        final ValueCache cache = new ValueCache(8);
+
+        cache.put(KEY1, VALUE);
+
+        assertNull(cache.get(KEY1));
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testSetMaxSizeTrimsEntries() {
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+
+        cache.put(KEY1, VALUE);
+        cache.put(KEY2, VALUE);
+        cache.setMaxSize(cache.getSize() / 2);
+
+        assertEquals(1, cache.getCount());
+        assertNull(cache.get(KEY1));
+    }
+
+    public void testClear() {
+        final ValueCache cache = new ValueCache(ValueCache.DEFAULT_MAX_SIZE);
+
+        cache.put(KEY1, VALUE);
+        cache.clear();
+
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getSize());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CompressionStats {
+
+    private static final class Holder {
+        public static final CompressionStats INSTANCE = new CompressionStats();
+    }
+
+    public static CompressionStats getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final AtomicLong mBytesReceived = new AtomicLong();
+    private final AtomicLong mBytesDecoded = new AtomicLong();
+    private final AtomicLong mBytesSent = new AtomicLong();
+    private final AtomicLong mBytesEncoded = new AtomicLong();
+
+    public void recordResponse(final long received, final long decoded) {
+        mBytesReceived.addAndGet(received);
+        mBytesDecoded.addAndGet(decoded);
+    }
+
+    public void recordRequest(final long sent, final long encoded) {
+        mBytesSent.addAndGet(sent);
+        mBytesEncoded.addAndGet(encoded);
+    }
+
+    public long getBytesReceived() {
+        return mBytesReceived.get();
+    }
+
+    public long getBytesDecoded() {
+        return mBytesDecoded.get();
+    }
+
+    public long getBytesSent() {
+        return mBytesSent.get();
+    }
+
+    public long getBytesEncoded() {
+        return mBytesEncoded.get();
+    }
+
+    public void reset() {
+        mBytesReceived.set(0);
+        mBytesDecoded.set(0);
+        mBytesSent.set(0);
+        mBytesEncoded.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats[received=" + getBytesReceived() + ", decoded=" + getBytesDecoded() + ", sent=" + getBytesSent() + ", encoded=" + getBytesEncoded() + "]";
+    }
+
+    /* package */ static final class CountingInputStream extends FilterInputStream {
+
+        private long mCount;
+
+        public CountingInputStream(final InputStream stream) {
+            super(stream);
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read >= 0) {
+                mCount += 1;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                mCount += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            final long skipped = super.skip(count);
+            mCount += skipped;
+            return skipped;
+        }
+    }
+}
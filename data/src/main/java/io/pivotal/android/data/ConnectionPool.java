@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool extends ThreadSafeClientConnManager {
+
+    public static final class Limits {
+        public static final int MAX_TOTAL = 8;
+        public static final int MAX_PER_ROUTE = 4;
+        public static final int WAIT_TIMEOUT = 4000;
+        public static final int IDLE_TIMEOUT = 30000;
+    }
+
+    private static final class Holder {
+        public static final ConnectionPool INSTANCE = new ConnectionPool();
+    }
+
+    public static ConnectionPool getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mLastEviction = new AtomicLong();
+
+    private final long mIdleTimeout;
+
+    public ConnectionPool() {
+        this(Limits.MAX_TOTAL, Limits.MAX_PER_ROUTE, Limits.IDLE_TIMEOUT);
+    }
+
+    public ConnectionPool(final int maxTotal, final int maxPerRoute, final long idleTimeout) {
+        super(createParams(maxTotal, maxPerRoute), createSchemeRegistry());
+        mIdleTimeout = idleTimeout;
+    }
+
+    private static HttpParams createParams(final int maxTotal, final int maxPerRoute) {
+        final HttpParams params = new BasicHttpParams();
+        ConnManagerParams.setMaxTotalConnections(params, maxTotal);
+        ConnManagerParams.setMaxConnectionsPerRoute(params, new ConnPerRouteBean(maxPerRoute));
+        ConnManagerParams.setTimeout(params, Limits.WAIT_TIMEOUT);
+        return params;
+    }
+
+    private static SchemeRegistry createSchemeRegistry() {
+        final SchemeRegistry registry = new SchemeRegistry();
+        registry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
+        registry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(), 443));
+        return registry;
+    }
+
+    @Override
+    public ClientConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        evictIdleConnections();
+
+        final ClientConnectionRequest request = super.requestConnection(route, state);
+
+        return new ClientConnectionRequest() {
+
+            @Override
+            public ManagedClientConnection getConnection(final long timeout, final TimeUnit unit) throws InterruptedException, ConnectionPoolTimeoutException {
+                final ManagedClientConnection connection = request.getConnection(timeout, unit);
+
+                if (connection.isOpen()) {
+                    mHits.incrementAndGet();
+                } else {
+                    mMisses.incrementAndGet();
+                }
+
+                return connection;
+            }
+
+            @Override
+            public void abortRequest() {
+                request.abortRequest();
+            }
+        };
+    }
+
+    protected void evictIdleConnections() {
+        final long now = System.currentTimeMillis();
+        final long last = mLastEviction.get();
+
+        if (now - last > mIdleTimeout / 2 && mLastEviction.compareAndSet(last, now)) {
+            closeExpiredConnections();
+            closeIdleConnections(mIdleTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public long getHitCount() {
+        return mHits.get();
+    }
+
+    public long getMissCount() {
+        return mMisses.get();
+    }
+
+    public long getIdleTimeout() {
+        return mIdleTimeout;
+    }
+}
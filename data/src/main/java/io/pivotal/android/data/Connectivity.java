@@ -6,9 +6,12 @@ package io.pivotal.android.data;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
+import android.os.Build;
 
 public class Connectivity {
 
+    public static final int TYPE_NONE = -1;
+
     public static boolean isConnected(final Context context) {
         final String service = Context.CONNECTIVITY_SERVICE;
         final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
@@ -16,4 +19,34 @@ public class Connectivity {
         final NetworkInfo activeNetwork = manager.getActiveNetworkInfo();
         return activeNetwork != null && activeNetwork.isConnected();
     }
+
+    public static ConnectivityMonitor.State getState(final Context context) {
+        final String service = Context.CONNECTIVITY_SERVICE;
+        final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
+
+        final NetworkInfo activeNetwork = manager.getActiveNetworkInfo();
+
+        if (activeNetwork == null || !activeNetwork.isConnected()) {
+            return ConnectivityMonitor.State.DISCONNECTED;
+        }
+
+        final int type = activeNetwork.getType();
+        return new ConnectivityMonitor.State(true, type, isMetered(manager, type));
+    }
+
+    private static boolean isMetered(final ConnectivityManager manager, final int type) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return manager.isActiveNetworkMetered();
+        }
+
+        switch (type) {
+            case ConnectivityManager.TYPE_WIFI:
+            case ConnectivityManager.TYPE_ETHERNET:
+            case ConnectivityManager.TYPE_BLUETOOTH:
+                return false;
+
+            default:
+                return true;
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+
+public class ConnectivityMonitor {
+
+    public static final class State {
+
+        public static final State DISCONNECTED = new State(false, Connectivity.TYPE_NONE, false);
+
+        private final boolean mConnected;
+        private final int mType;
+        private final boolean mMetered;
+
+        public State(final boolean connected, final int type, final boolean metered) {
+            mConnected = connected;
+            mType = type;
+            mMetered = metered;
+        }
+
+        public boolean isConnected() {
+            return mConnected;
+        }
+
+        public int getType() {
+            return mType;
+        }
+
+        public boolean isMetered() {
+            return mMetered;
+        }
+
+        @Override
+        public String toString() {
+            return "State[connected=" + mConnected + ", type=" + mType + ", metered=" + mMetered + "]";
+        }
+    }
+
+    private static final class Holder {
+        public static final ConnectivityMonitor INSTANCE = new ConnectivityMonitor();
+    }
+
+    public static ConnectivityMonitor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private volatile State mState;
+    private volatile boolean mTracking;
+
+    public State getState(final Context context) {
+        final State state = mState;
+
+        if (state == null || !mTracking) {
+            return update(context);
+        }
+
+        return state;
+    }
+
+    public boolean isConnected(final Context context) {
+        return getState(context).isConnected();
+    }
+
+    public boolean isMetered(final Context context) {
+        return getState(context).isMetered();
+    }
+
+    public int getNetworkType(final Context context) {
+        return getState(context).getType();
+    }
+
+    public State update(final Context context) {
+        final State state = Connectivity.getState(context);
+        setState(state);
+        return state;
+    }
+
+    public void setState(final State state) {
+        Logger.v("Connectivity: %s", state);
+        mState = state;
+    }
+
+    public void setTracking(final boolean tracking) {
+        mTracking = tracking;
+    }
+
+    public boolean isTracking() {
+        return mTracking;
+    }
+
+    public void reset() {
+        mState = null;
+    }
+}
@@ -11,8 +11,8 @@ import android.content.pm.PackageManager;
 
 public class ConnectivityReceiver extends BroadcastReceiver {
 
-    private static boolean sIsConnected;
-    private static ConnectivityListener sConnectivityListener = new ConnectivityListener() {
+    private static volatile boolean sIsConnected;
+    private static volatile ConnectivityListener sConnectivityListener = new ConnectivityListener() {
         @Override
         public void onNetworkStatusChanged(final Context context, final boolean connected) {
             if (connected) {
@@ -24,14 +24,12 @@ public class ConnectivityReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(final Context context, final Intent intent) {
 
-        if (sConnectivityListener == null) {
-            return;
-        }
-
-        final boolean connected = Connectivity.isConnected(context);
+        final boolean connected = ConnectivityMonitor.getInstance().update(context).isConnected();
+        ConnectivityMonitor.getInstance().setTracking(true);
+        final ConnectivityListener listener = sConnectivityListener;
 
-        if (sIsConnected != connected) {
-            sConnectivityListener.onNetworkStatusChanged(context, connected);
+        if (listener != null && sIsConnected != connected) {
+            listener.onNetworkStatusChanged(context, connected);
         }
 
         sIsConnected = connected;
@@ -39,7 +37,9 @@ public class ConnectivityReceiver extends BroadcastReceiver {
 
     static void registerConnectivityListener(final Context context, final ConnectivityListener connectivityListener) {
         setConnectivityListener(connectivityListener);
-        setIsConnected(Connectivity.isConnected(context));
+        setIsConnected(ConnectivityMonitor.getInstance().update(context).isConnected());
+
+        ConnectivityMonitor.getInstance().setTracking(connectivityListener != null);
 
         if (connectivityListener != null) {
             enableBroadcastReceiver(context);
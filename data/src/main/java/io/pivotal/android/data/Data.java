@@ -5,6 +5,8 @@ package io.pivotal.android.data;
 
 import android.content.Context;
 
+import java.util.concurrent.Executor;
+
 public class Data {
 
     public static void registerTokenProvider(final TokenProvider provider) {
@@ -15,6 +17,62 @@ public class Data {
         ConnectivityReceiver.registerConnectivityListener(context, connectivityListener);
     }
 
+    public static void setSyncParallelism(final int parallelism) {
+        RequestCacheExecutor.setDefaultParallelism(parallelism);
+    }
+
+    public static void setMemoryCacheSize(final int bytes) {
+        ValueCache.getInstance().setMaxSize(bytes);
+    }
+
+    public static void setDiskExecutor(final Executor executor) {
+        DataExecutors.setDiskExecutor(executor);
+    }
+
+    public static void setNetworkExecutor(final Executor executor) {
+        DataExecutors.setNetworkExecutor(executor);
+    }
+
+    public static void setObserverExecutor(final Executor executor) {
+        ObserverHandler.setDefaultExecutor(executor);
+    }
+
+    public static void setRetryPolicy(final int method, final RetryPolicy policy) {
+        RetryPolicy.setPolicy(method, policy);
+    }
+
+    public static void setRequestHeader(final String name, final String value) {
+        RemoteClient.Default.setHeader(name, value);
+    }
+
+    public static void removeRequestHeader(final String name) {
+        RemoteClient.Default.removeHeader(name);
+    }
+
+    public static void setRequestCompressionThreshold(final int bytes) {
+        RemoteClient.Default.setCompressionThreshold(bytes);
+    }
+
+    public static void setLocalBackend(final int backend) {
+        KeyValueOfflineStore.setDefaultBackend(backend);
+    }
+
+    public static void setReadPolicy(final int policy) {
+        OfflineStore.setReadPolicy(policy);
+    }
+
+    public static void setMaxAge(final String collection, final long millis) {
+        OfflineStore.setMaxAge(collection, millis);
+    }
+
+    public static void setBatchedWritesEnabled(final boolean enabled) {
+        DataPersistence.setDefaultMode(enabled ? DataPersistence.Modes.BATCHED : DataPersistence.Modes.DURABLE);
+    }
+
+    public static void flush() {
+        DataPersistence.flushAll();
+    }
+
     public static void sync(final Context context) {
         final OfflineStore<KeyValue> offlineStore = KeyValueOfflineStore.create(context);
         offlineStore.getRequestCache().executePending();
@@ -27,6 +85,12 @@ public class Data {
 
     public static void clearLocalCache(final Context context) {
         new DataPersistence(context, KeyValueLocalStore.DATA_PREFIX).clear();
-        new DataPersistence(context, EtagStore.ETAG_CACHE).clear();
+        ValueCache.getInstance().clear();
+        EtagStore.getInstance(context).clear();
+        OfflineStore.clearValidations();
+
+        if (KeyValueDatabase.exists(context)) {
+            KeyValueDatabase.getInstance(context).clear();
+        }
     }
 }
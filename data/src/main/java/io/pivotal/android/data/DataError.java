@@ -34,4 +34,8 @@ public class DataError extends Error {
     public boolean isNotFound() {
         return mCode == 404;
     }
+
+    public boolean isRetryExhausted() {
+        return getCause() instanceof RetryExhaustedException;
+    }
 }
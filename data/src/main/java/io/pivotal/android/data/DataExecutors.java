@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DataExecutors {
+
+    public static final class Sizes {
+        public static final int DISK_THREADS = 2;
+        public static final int NETWORK_THREADS = 4;
+        public static final int SYNC_THREADS = 4;
+        public static final int KEEP_ALIVE = 30;
+    }
+
+    private static MeteredExecutor sDiskExecutor;
+    private static MeteredExecutor sNetworkExecutor;
+    private static ScheduledExecutorService sScheduler;
+    private static Executor sSyncExecutor;
+
+    public static synchronized MeteredExecutor getDiskExecutor() {
+        if (sDiskExecutor == null) {
+            sDiskExecutor = new MeteredExecutor(createExecutor("PCFData-Disk", Sizes.DISK_THREADS));
+        }
+        return sDiskExecutor;
+    }
+
+    public static synchronized MeteredExecutor getNetworkExecutor() {
+        if (sNetworkExecutor == null) {
+            sNetworkExecutor = new MeteredExecutor(createExecutor("PCFData-Network", Sizes.NETWORK_THREADS));
+        }
+        return sNetworkExecutor;
+    }
+
+    public static synchronized ScheduledExecutorService getScheduler() {
+        if (sScheduler == null) {
+            sScheduler = new ScheduledThreadPoolExecutor(1, new BackgroundThreadFactory("PCFData-Scheduler"));
+        }
+        return sScheduler;
+    }
+
+    public static synchronized Executor getSyncExecutor(final int threads) {
+        if (sSyncExecutor == null) {
+            sSyncExecutor = createExecutor("PCFData-Sync", Math.max(threads, Sizes.SYNC_THREADS));
+
+        } else if (sSyncExecutor instanceof ThreadPoolExecutor) {
+            final ThreadPoolExecutor executor = (ThreadPoolExecutor) sSyncExecutor;
+            if (executor.getMaximumPoolSize() < threads) {
+                executor.setMaximumPoolSize(threads);
+                executor.setCorePoolSize(threads);
+            }
+        }
+        return sSyncExecutor;
+    }
+
+    public static synchronized void setSyncExecutor(final Executor executor) {
+        sSyncExecutor = executor;
+    }
+
+    public static synchronized void setDiskExecutor(final Executor executor) {
+        sDiskExecutor = executor != null ? new MeteredExecutor(executor) : null;
+    }
+
+    public static synchronized void setNetworkExecutor(final Executor executor) {
+        sNetworkExecutor = executor != null ? new MeteredExecutor(executor) : null;
+    }
+
+    static ThreadPoolExecutor createExecutor(final String name, final int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                Sizes.KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new BackgroundThreadFactory(name));
+
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class BackgroundThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger mCount = new AtomicInteger();
+        private final String mName;
+
+        public BackgroundThreadFactory(final String name) {
+            mName = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, mName + "-" + mCount.incrementAndGet());
+
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+public class DataMapper {
+
+    private static class Holder {
+        public static final DataMapper INSTANCE = new DataMapper();
+    }
+
+    public static DataMapper getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final ObjectMapper mMapper;
+    private final ObjectReader mRequestReader;
+    private final ObjectWriter mRequestWriter;
+    private final ObjectReader mRequestListReader;
+    private final ObjectWriter mRequestListWriter;
+
+    private DataMapper() {
+        mMapper = new ObjectMapper();
+        mMapper.registerSubtypes(KeyValue.class);
+
+        mRequestReader = mMapper.reader(PendingRequest.class);
+        mRequestWriter = mMapper.writerWithType(PendingRequest.class);
+        mRequestListReader = mMapper.reader(PendingRequest.List.class);
+        mRequestListWriter = mMapper.writerWithType(PendingRequest.List.class);
+    }
+
+    public ObjectMapper getMapper() {
+        return mMapper;
+    }
+
+    public ObjectReader getRequestReader() {
+        return mRequestReader;
+    }
+
+    public ObjectWriter getRequestWriter() {
+        return mRequestWriter;
+    }
+
+    public ObjectReader getRequestListReader() {
+        return mRequestListReader;
+    }
+
+    public ObjectWriter getRequestListWriter() {
+        return mRequestListWriter;
+    }
+}
@@ -3,38 +3,107 @@
  */
 package io.pivotal.android.data;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.util.Map;
+
 public class DataPersistence {
 
+    public static final class Modes {
+        public static final int DURABLE = 0;
+        public static final int BATCHED = 1;
+    }
+
     private static final String EMPTY = "";
 
-    private final SharedPreferences mPreferences;
+    private static volatile int sDefaultMode = Modes.DURABLE;
+
+    public static void setDefaultMode(final int mode) {
+        sDefaultMode = mode;
+    }
+
+    public static int getDefaultMode() {
+        return sDefaultMode;
+    }
+
+    public static void flushAll() {
+        WriteBatch.flushAll();
+    }
+
+    private final WriteBatch mBatch;
+    private final int mMode;
+    private final ThreadLocal<int[]> mTransactions = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
 
     public DataPersistence(final Context context, final String namespace) {
-        mPreferences = context.getSharedPreferences(namespace, Context.MODE_PRIVATE);
+        this(context, namespace, sDefaultMode);
+    }
+
+    public DataPersistence(final Context context, final String namespace, final int mode) {
+        final SharedPreferences preferences = context.getSharedPreferences(namespace, Context.MODE_PRIVATE);
+        mBatch = WriteBatch.obtain(namespace, preferences);
+        mMode = mode;
+    }
+
+    public int getMode() {
+        return mMode;
     }
 
     public String getString(final String key) {
-        return mPreferences.getString(key, EMPTY);
+        return mBatch.get(key, EMPTY);
+    }
+
+    public Map<String, String> getAll() {
+        return mBatch.getAll();
     }
 
-    @SuppressLint("CommitPrefEdits")
     public String putString(final String key, final String value) {
-        mPreferences.edit().putString(key, value).commit();
+        mBatch.put(key, value);
+        onChanged();
         return value;
     }
 
-    @SuppressLint("CommitPrefEdits")
     public String deleteString(final String key) {
-        mPreferences.edit().remove(key).commit();
+        mBatch.remove(key);
+        onChanged();
         return EMPTY;
     }
 
-    @SuppressLint("CommitPrefEdits")
     public void clear() {
-        mPreferences.edit().clear().commit();
+        mBatch.clear();
+    }
+
+    public void flush() {
+        mBatch.flush();
+    }
+
+    public void beginTransaction() {
+        mTransactions.get()[0] += 1;
+    }
+
+    public void endTransaction() {
+        final int[] depth = mTransactions.get();
+        depth[0] -= 1;
+
+        if (depth[0] == 0) {
+            onChanged();
+        }
+    }
+
+    private void onChanged() {
+        if (mTransactions.get()[0] > 0) {
+            return;
+        }
+
+        if (mMode == Modes.DURABLE) {
+            mBatch.flush();
+        } else {
+            mBatch.flushWhenDue();
+        }
     }
 }
@@ -3,6 +3,8 @@
  */
 package io.pivotal.android.data;
 
+import java.util.List;
+
 public interface DataStore<T> {
 
     public Response<T> execute(final Request<T> request);
@@ -18,6 +20,10 @@ public interface DataStore<T> {
         public void onResponse(Response<T> response);
     }
 
+    public static interface BatchObserver<T> extends Observer<T> {
+        public void onResponses(List<Response<T>> responses);
+    }
+
     public static interface Listener<T> {
         public void onResponse(Response<T> response);
     }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DataStoreAdapter<T> implements ExtendedDataStore<T> {
+
+    public static <T> ExtendedDataStore<T> extend(final DataStore<T> dataStore) {
+        if (dataStore == null || dataStore instanceof ExtendedDataStore) {
+            return (ExtendedDataStore<T>) dataStore;
+        } else {
+            return new DataStoreAdapter<T>(dataStore);
+        }
+    }
+
+    private final DataStore<T> mDataStore;
+
+    public DataStoreAdapter(final DataStore<T> dataStore) {
+        mDataStore = dataStore;
+    }
+
+    @Override
+    public Response<T> execute(final Request<T> request) {
+        return mDataStore.execute(request);
+    }
+
+    @Override
+    public void execute(final Request<T> request, final Listener<T> listener) {
+        mDataStore.execute(request, listener);
+    }
+
+    @Override
+    public RequestFuture<T> submit(final Request<T> request) {
+        final RequestFuture<T> future = new RequestFuture<T>(mDataStore, request);
+        DataExecutors.getNetworkExecutor().execute(future);
+        return future;
+    }
+
+    @Override
+    public List<Response<T>> executeAll(final List<Request<T>> requests) {
+        final List<Response<T>> responses = new ArrayList<Response<T>>(requests.size());
+        for (final Request<T> request : requests) {
+            responses.add(mDataStore.execute(request));
+        }
+        return responses;
+    }
+
+    @Override
+    public boolean addObserver(final Observer<T> observer) {
+        return mDataStore.addObserver(observer);
+    }
+
+    @Override
+    public boolean removeObserver(final Observer<T> observer) {
+        return mDataStore.removeObserver(observer);
+    }
+
+    @Override
+    public boolean addObserver(final Observer<T> observer, final String collection, final String key) {
+        if (collection == null) {
+            return mDataStore.addObserver(observer);
+        } else {
+            return mDataStore.addObserver(new FilteredObserver<T>(observer, collection, key));
+        }
+    }
+
+    @Override
+    public boolean removeObserver(final Observer<T> observer, final String collection, final String key) {
+        if (collection == null) {
+            return mDataStore.removeObserver(observer);
+        } else {
+            return mDataStore.removeObserver(new FilteredObserver<T>(observer, collection, key));
+        }
+    }
+
+    private static final class FilteredObserver<T> implements Observer<T> {
+
+        private final Observer<T> mObserver;
+        private final String mCollection;
+        private final String mKey;
+
+        public FilteredObserver(final Observer<T> observer, final String collection, final String key) {
+            mObserver = observer;
+            mCollection = collection;
+            mKey = key;
+        }
+
+        @Override
+        public void onResponse(final Response<T> response) {
+            if (response != null && response.object instanceof Identifiable) {
+                final Identifiable identifiable = (Identifiable) response.object;
+
+                if (mCollection.equals(identifiable.getCollection()) && (mKey == null || mKey.equals(identifiable.getKey()))) {
+                    mObserver.onResponse(response);
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof FilteredObserver)) {
+                return false;
+            }
+            final FilteredObserver<?> other = (FilteredObserver<?>) o;
+            return mObserver.equals(other.mObserver) && mCollection.equals(other.mCollection)
+                    && (mKey == null ? other.mKey == null : mKey.equals(other.mKey));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mObserver.hashCode();
+            result = 31 * result + mCollection.hashCode();
+            result = 31 * result + (mKey != null ? mKey.hashCode() : 0);
+            return result;
+        }
+    }
+}
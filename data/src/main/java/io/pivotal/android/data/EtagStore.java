@@ -4,26 +4,140 @@
 package io.pivotal.android.data;
 
 import android.content.Context;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class EtagStore {
 
     static final String ETAG_CACHE = "PCFData:EtagCache";
 
+    public static final int MAX_ENTRIES = 512;
+
+    private static EtagStore sInstance;
+
+    public static synchronized EtagStore getInstance(final Context context) {
+        if (sInstance == null) {
+            sInstance = new EtagStore(new DataPersistence(context, ETAG_CACHE, DataPersistence.Modes.DURABLE));
+        }
+        return sInstance;
+    }
+
     private final DataPersistence mPersistence;
+    private final int mMaxEntries;
+
+    private Map<String, String> mIndex;
 
     public EtagStore(final Context context) {
-        this(new DataPersistence(context, ETAG_CACHE));
+        this(new DataPersistence(context, ETAG_CACHE, DataPersistence.Modes.DURABLE));
     }
 
     public EtagStore(final DataPersistence persistence) {
+        this(persistence, MAX_ENTRIES);
+    }
+
+    public EtagStore(final DataPersistence persistence, final int maxEntries) {
         mPersistence = persistence;
+        mMaxEntries = maxEntries;
+    }
+
+    public synchronized String put(final String url, final String etag) {
+        final Map<String, String> index = getIndex();
+
+        if (TextUtils.isEmpty(etag)) {
+            if (index.remove(url) != null || !TextUtils.isEmpty(mPersistence.getString(url))) {
+                mPersistence.deleteString(url);
+            }
+            return "";
+        }
+
+        final String previous = index.put(url, etag);
+        final String stored = previous != null ? previous : mPersistence.getString(url);
+
+        if (!etag.equals(stored)) {
+            mPersistence.putString(url, etag);
+        }
+
+        return etag;
+    }
+
+    public synchronized String get(final String url) {
+        final Map<String, String> index = getIndex();
+        final String etag = index.get(url);
+
+        if (etag != null) {
+            return etag;
+        }
+
+        final String stored = mPersistence.getString(url);
+
+        if (!TextUtils.isEmpty(stored)) {
+            index.put(url, stored);
+            return stored;
+        }
+
+        return "";
+    }
+
+    public synchronized int size() {
+        return getIndex().size();
+    }
+
+    public synchronized void clear() {
+        mIndex = null;
+        mPersistence.clear();
     }
 
-    public String put(final String url, final String etag) {
-        return mPersistence.putString(url, etag);
+    private Map<String, String> getIndex() {
+        if (mIndex == null) {
+            mIndex = loadIndex();
+        }
+        return mIndex;
     }
 
-    public String get(final String url) {
-        return mPersistence.getString(url);
+    private Map<String, String> loadIndex() {
+        final Map<String, String> index = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+                return size() > mMaxEntries;
+            }
+        };
+
+        final Map<String, String> stored = mPersistence.getAll();
+        final List<String> stale = new ArrayList<String>();
+
+        if (stored != null) {
+            final Iterator<Map.Entry<String, String>> iterator = stored.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                final Map.Entry<String, String> entry = iterator.next();
+
+                if (!TextUtils.isEmpty(entry.getValue())) {
+                    index.put(entry.getKey(), entry.getValue());
+                } else {
+                    stale.add(entry.getKey());
+                }
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            mPersistence.beginTransaction();
+            try {
+                for (final String key : stale) {
+                    mPersistence.deleteString(key);
+                }
+            } finally {
+                mPersistence.endTransaction();
+            }
+        }
+
+        Logger.v("Loaded %s etags.", index.size());
+
+        return index;
     }
 }
@@ -0,0 +1,10 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+
+public interface ExpiringTokenProvider extends TokenProvider {
+    public long getAccessTokenExpiration(final Context context);
+}
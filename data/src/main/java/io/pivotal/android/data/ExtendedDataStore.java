@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.util.List;
+
+public interface ExtendedDataStore<T> extends DataStore<T> {
+
+    public RequestFuture<T> submit(final Request<T> request);
+
+    public List<Response<T>> executeAll(final List<Request<T>> requests);
+
+    public boolean addObserver(final Observer<T> observer, final String collection, final String key);
+
+    public boolean removeObserver(final Observer<T> observer, final String collection, final String key);
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+public interface Identifiable {
+    public String getCollection();
+
+    public String getKey();
+
+    public String getIdentifier();
+}
@@ -3,7 +3,9 @@
  */
 package io.pivotal.android.data;
 
-public class KeyValue {
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class KeyValue implements Identifiable {
     public String key, value, collection;
 
     public KeyValue() {}
@@ -18,6 +20,22 @@ public class KeyValue {
         this.value = value;
     }
 
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public String getKey() {
+        return key;
+    }
+
+    @JsonIgnore
+    @Override
+    public String getIdentifier() {
+        return collection + ":" + key;
+    }
+
     @Override
     public String toString() {
         return "key: " + key + ", value: " + value;
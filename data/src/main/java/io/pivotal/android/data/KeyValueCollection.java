@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class KeyValueCollection {
+
+    public static KeyValueCollection create(final Context context, final String collection) {
+        final DataStore<KeyValue> dataStore = KeyValueOfflineStore.create(context);
+        return new KeyValueCollection(dataStore, collection);
+    }
+
+    private final ExtendedDataStore<KeyValue> mDataStore;
+    private final String mCollection;
+
+    private boolean mForce;
+
+    public KeyValueCollection(final DataStore<KeyValue> dataStore, final String collection) {
+        mDataStore = DataStoreAdapter.extend(dataStore);
+        mCollection = collection;
+    }
+
+    public void setShouldForceRequest(final boolean force) {
+        mForce = force;
+    }
+
+    public KeyValueObject getObject(final String key) {
+        final KeyValueObject object = new KeyValueObject(mDataStore, mCollection, key);
+        object.setShouldForceRequest(mForce);
+        return object;
+    }
+
+    protected Request<KeyValue> createRequest(final int method, final String key, final String value) {
+        final KeyValue object = new KeyValue(mCollection, key, value);
+        return new Request<KeyValue>(method, object, mForce);
+    }
+
+    public Map<String, Response<KeyValue>> get(final List<String> keys) {
+        Logger.d("Get: %s, keys: %s", mCollection, keys.size());
+        final List<Request<KeyValue>> requests = new ArrayList<Request<KeyValue>>(keys.size());
+        for (final String key : keys) {
+            requests.add(createRequest(Request.Methods.GET, key, null));
+        }
+        return executeAll(requests);
+    }
+
+    public Map<String, Response<KeyValue>> put(final Map<String, String> values) {
+        Logger.d("Put: %s, keys: %s", mCollection, values.size());
+        final List<Request<KeyValue>> requests = new ArrayList<Request<KeyValue>>(values.size());
+        for (final Map.Entry<String, String> entry : values.entrySet()) {
+            requests.add(createRequest(Request.Methods.PUT, entry.getKey(), entry.getValue()));
+        }
+        return executeAll(requests);
+    }
+
+    public Map<String, Response<KeyValue>> delete(final List<String> keys) {
+        Logger.d("Delete: %s, keys: %s", mCollection, keys.size());
+        final List<Request<KeyValue>> requests = new ArrayList<Request<KeyValue>>(keys.size());
+        for (final String key : keys) {
+            requests.add(createRequest(Request.Methods.DELETE, key, null));
+        }
+        return executeAll(requests);
+    }
+
+    public boolean addObserver(final DataStore.Observer<KeyValue> observer) {
+        Logger.d("Add collection observer: %s", observer);
+        return mDataStore.addObserver(observer, mCollection, null);
+    }
+
+    public boolean removeObserver(final DataStore.Observer<KeyValue> observer) {
+        Logger.d("Remove collection observer: %s", observer);
+        return mDataStore.removeObserver(observer, mCollection, null);
+    }
+
+    private Map<String, Response<KeyValue>> executeAll(final List<Request<KeyValue>> requests) {
+        final List<Response<KeyValue>> responses = mDataStore.executeAll(requests);
+        final Map<String, Response<KeyValue>> results = new LinkedHashMap<String, Response<KeyValue>>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            results.put(requests.get(i).object.key, responses.get(i));
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+public class KeyValueDatabase extends SQLiteOpenHelper {
+
+    static final String DATABASE_NAME = "PCFData.db";
+
+    private static final int DATABASE_VERSION = 1;
+
+    private static final class Sql {
+        private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS data (collection TEXT NOT NULL, key TEXT NOT NULL, value TEXT, PRIMARY KEY (collection, key))";
+        private static final String SELECT_VALUE = "SELECT value FROM data WHERE collection = ? AND key = ?";
+        private static final String REPLACE_VALUE = "INSERT OR REPLACE INTO data (collection, key, value) VALUES (?, ?, ?)";
+        private static final String DELETE_VALUE = "DELETE FROM data WHERE collection = ? AND key = ?";
+        private static final String DELETE_ALL = "DELETE FROM data";
+    }
+
+    private static KeyValueDatabase sInstance;
+
+    public static synchronized KeyValueDatabase getInstance(final Context context) {
+        if (sInstance == null) {
+            sInstance = new KeyValueDatabase(context.getApplicationContext(), DATABASE_NAME);
+        }
+        return sInstance;
+    }
+
+    public static boolean exists(final Context context) {
+        return context.getDatabasePath(DATABASE_NAME).exists();
+    }
+
+    private SQLiteStatement mSelectStatement;
+    private SQLiteStatement mReplaceStatement;
+    private SQLiteStatement mDeleteStatement;
+
+    public KeyValueDatabase(final Context context, final String name) {
+        super(context, name, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(final SQLiteDatabase db) {
+        db.execSQL(Sql.CREATE_TABLE);
+    }
+
+    @Override
+    public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+        db.execSQL(Sql.CREATE_TABLE);
+    }
+
+    public synchronized String getString(final String collection, final String key) {
+        final SQLiteStatement statement = getSelectStatement();
+        statement.bindString(1, collection);
+        statement.bindString(2, key);
+
+        try {
+            final String value = statement.simpleQueryForString();
+            return value != null ? value : "";
+        } catch (final SQLiteDoneException e) {
+            return "";
+        }
+    }
+
+    public synchronized String putString(final String collection, final String key, final String value) {
+        final SQLiteStatement statement = getReplaceStatement();
+        statement.bindString(1, collection);
+        statement.bindString(2, key);
+
+        if (value != null) {
+            statement.bindString(3, value);
+        } else {
+            statement.bindNull(3);
+        }
+
+        statement.executeInsert();
+        return value;
+    }
+
+    public synchronized String deleteString(final String collection, final String key) {
+        final SQLiteStatement statement = getDeleteStatement();
+        statement.bindString(1, collection);
+        statement.bindString(2, key);
+        statement.execute();
+        return "";
+    }
+
+    public synchronized void clear() {
+        getWritableDatabase().execSQL(Sql.DELETE_ALL);
+    }
+
+    public synchronized void runInTransaction(final Runnable runnable) {
+        final SQLiteDatabase database = getWritableDatabase();
+        database.beginTransaction();
+
+        try {
+            runnable.run();
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeStatements();
+        super.close();
+    }
+
+    private SQLiteStatement getSelectStatement() {
+        if (mSelectStatement == null) {
+            mSelectStatement = getWritableDatabase().compileStatement(Sql.SELECT_VALUE);
+        }
+        return mSelectStatement;
+    }
+
+    private SQLiteStatement getReplaceStatement() {
+        if (mReplaceStatement == null) {
+            mReplaceStatement = getWritableDatabase().compileStatement(Sql.REPLACE_VALUE);
+        }
+        return mReplaceStatement;
+    }
+
+    private SQLiteStatement getDeleteStatement() {
+        if (mDeleteStatement == null) {
+            mDeleteStatement = getWritableDatabase().compileStatement(Sql.DELETE_VALUE);
+        }
+        return mDeleteStatement;
+    }
+
+    private void closeStatements() {
+        if (mSelectStatement != null) {
+            mSelectStatement.close();
+            mSelectStatement = null;
+        }
+        if (mReplaceStatement != null) {
+            mReplaceStatement.close();
+            mReplaceStatement = null;
+        }
+        if (mDeleteStatement != null) {
+            mDeleteStatement.close();
+            mDeleteStatement = null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+
+public class KeyValueDatabaseStore extends LocalStore<KeyValue> {
+
+    private final KeyValueDatabase mDatabase;
+
+    public KeyValueDatabaseStore(final Context context) {
+        this(new ObserverHandler<KeyValue>(), KeyValueDatabase.getInstance(context));
+    }
+
+    public KeyValueDatabaseStore(final ObserverHandler<KeyValue> handler, final KeyValueDatabase database) {
+        super(handler, null);
+        mDatabase = database;
+    }
+
+    protected KeyValueDatabase getDatabase() {
+        return mDatabase;
+    }
+
+    @Override
+    public void runInBatch(final Runnable batch) {
+        mDatabase.runInTransaction(batch);
+    }
+
+    @Override
+    public Response<KeyValue> execute(final Request<KeyValue> request) {
+        final Response<KeyValue> response = executeRequest(request);
+        getHandler().notifyResponse(response);
+        return response;
+    }
+
+    private Response<KeyValue> executeRequest(final Request<KeyValue> request) {
+        try {
+
+            final KeyValue responseObject = new KeyValue(request.object);
+            responseObject.value = executeRequestForMethod(request);
+
+            return new Response<KeyValue>(responseObject);
+
+        } catch (final Exception e) {
+            Logger.ex(e);
+            return new Response<KeyValue>(request.object, new DataError(e));
+        }
+    }
+
+    private String executeRequestForMethod(final Request<KeyValue> request) throws Exception {
+
+        final KeyValue object = request.object;
+
+        switch (request.method) {
+            case Request.Methods.GET:
+                Logger.d("Get: %s", object);
+                return mDatabase.getString(object.collection, object.key);
+
+            case Request.Methods.PUT:
+                Logger.d("Put: %s", object);
+                return mDatabase.putString(object.collection, object.key, object.value);
+
+            case Request.Methods.DELETE:
+                Logger.d("Delete: %s", object);
+                return mDatabase.deleteString(object.collection, object.key);
+
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+}
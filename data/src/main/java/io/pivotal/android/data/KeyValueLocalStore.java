@@ -11,12 +11,19 @@ public class KeyValueLocalStore extends LocalStore<KeyValue> {
 
     static final String DATA_PREFIX = "PCFData:Data";
 
+    private final ValueCache mCache;
+
     public KeyValueLocalStore(final Context context) {
-        this(new ObserverHandler<KeyValue>(), new DataPersistence(context, DATA_PREFIX));
+        this(new ObserverHandler<KeyValue>(), new DataPersistence(context, DATA_PREFIX), ValueCache.getInstance());
     }
 
     public KeyValueLocalStore(final ObserverHandler<KeyValue> handler, final DataPersistence persistence) {
+        this(handler, persistence, null);
+    }
+
+    public KeyValueLocalStore(final ObserverHandler<KeyValue> handler, final DataPersistence persistence, final ValueCache cache) {
         super(handler, persistence);
+        mCache = cache;
     }
 
     @Override
@@ -46,22 +53,59 @@ public class KeyValueLocalStore extends LocalStore<KeyValue> {
 
         switch (request.method) {
             case Request.Methods.GET:
-                Logger.d("Get: " + request.object);
-                return getPersistence().getString(identifier);
+                Logger.d("Get: %s", request.object);
+                return getString(identifier);
 
             case Request.Methods.PUT:
-                Logger.d("Put: " + request.object);
-                return getPersistence().putString(identifier, request.object.value);
+                Logger.d("Put: %s", request.object);
+                return putString(identifier, request.object.value);
 
             case Request.Methods.DELETE:
-                Logger.d("Delete: " + request.object);
-                return getPersistence().deleteString(identifier);
+                Logger.d("Delete: %s", request.object);
+                return deleteString(identifier);
 
             default:
                 throw new UnsupportedOperationException();
         }
     }
 
+    private String getString(final String identifier) {
+        if (mCache != null) {
+            final String cached = mCache.get(identifier);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        final String value = getPersistence().getString(identifier);
+
+        if (mCache != null) {
+            mCache.putIfAbsent(identifier, value);
+        }
+
+        return value;
+    }
+
+    private String putString(final String identifier, final String value) {
+        final String result = getPersistence().putString(identifier, value);
+
+        if (mCache != null) {
+            mCache.put(identifier, result);
+        }
+
+        return result;
+    }
+
+    private String deleteString(final String identifier) {
+        final String result = getPersistence().deleteString(identifier);
+
+        if (mCache != null) {
+            mCache.put(identifier, result);
+        }
+
+        return result;
+    }
+
     private static String getIdentifier(final KeyValue object) {
         return object.collection + ":" + object.key;
     }
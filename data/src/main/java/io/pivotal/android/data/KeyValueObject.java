@@ -15,13 +15,13 @@ public class KeyValueObject {
         return new KeyValueObject(dataStore, collection, key);
     }
 
-    private final DataStore<KeyValue> mDataStore;
+    private final ExtendedDataStore<KeyValue> mDataStore;
     private final String mCollection, mKey;
 
     private boolean mForce;
 
     public KeyValueObject(final DataStore<KeyValue> dataStore, final String collection, final String key) {
-        mDataStore = dataStore;
+        mDataStore = DataStoreAdapter.extend(dataStore);
         mCollection = collection;
         mKey = key;
     }
@@ -31,54 +31,84 @@ public class KeyValueObject {
     }
 
     protected Request<KeyValue> createRequest(final int method, final String value) {
-        Logger.d("REQUEST: Collection: " + mCollection + ", Key: " + mKey + ", Value: " + value + ", Force: " + mForce);
+        if (Logger.isDebugEnabled()) {
+            Logger.d("REQUEST: Collection: " + mCollection + ", Key: " + mKey + ", Value: " + value + ", Force: " + mForce);
+        }
         final KeyValue object = new KeyValue(mCollection, mKey, value);
         return new Request<KeyValue>(method, object, mForce);
     }
 
     public Response<KeyValue> get() {
-        Logger.d("Get: " + mKey);
+        Logger.d("Get: %s", mKey);
         final Request<KeyValue> request = createRequest(Request.Methods.GET, null);
         return mDataStore.execute(request);
     }
 
     public void get(final Listener<KeyValue> listener) {
-        Logger.d("Get: " + mKey);
+        Logger.d("Get: %s", mKey);
         final Request<KeyValue> request = createRequest(Request.Methods.GET, null);
         mDataStore.execute(request, listener);
     }
 
+    public RequestFuture<KeyValue> submitGet() {
+        Logger.d("Get: %s", mKey);
+        final Request<KeyValue> request = createRequest(Request.Methods.GET, null);
+        return mDataStore.submit(request);
+    }
+
     public Response<KeyValue> put(final String value) {
-        Logger.d("Put: " + mKey + ", " + value);
+        Logger.d("Put: %s, %s", mKey, value);
         final Request<KeyValue> request = createRequest(Request.Methods.PUT, value);
         return mDataStore.execute(request);
     }
 
     public void put(final String value, final Listener<KeyValue> listener) {
-        Logger.d("Put: " + mKey + ", " + value);
+        Logger.d("Put: %s, %s", mKey, value);
         final Request<KeyValue> request = createRequest(Request.Methods.PUT, value);
         mDataStore.execute(request, listener);
     }
 
+    public RequestFuture<KeyValue> submitPut(final String value) {
+        Logger.d("Put: %s, %s", mKey, value);
+        final Request<KeyValue> request = createRequest(Request.Methods.PUT, value);
+        return mDataStore.submit(request);
+    }
+
     public Response<KeyValue> delete() {
-        Logger.d("Delete: " + mKey);
+        Logger.d("Delete: %s", mKey);
         final Request<KeyValue> request = createRequest(Request.Methods.DELETE, null);
         return mDataStore.execute(request);
     }
 
     public void delete(final Listener<KeyValue> listener) {
-        Logger.d("Delete: " + mKey);
+        Logger.d("Delete: %s", mKey);
         final Request<KeyValue> request = createRequest(Request.Methods.DELETE, null);
         mDataStore.execute(request, listener);
     }
 
+    public RequestFuture<KeyValue> submitDelete() {
+        Logger.d("Delete: %s", mKey);
+        final Request<KeyValue> request = createRequest(Request.Methods.DELETE, null);
+        return mDataStore.submit(request);
+    }
+
     public boolean addObserver(final Observer<KeyValue> observer) {
-        Logger.d("Add observer: " + observer);
+        Logger.d("Add observer: %s", observer);
         return mDataStore.addObserver(observer);
     }
 
     public boolean removeObserver(final Observer<KeyValue> observer) {
-        Logger.d("Remove observer: " + observer);
+        Logger.d("Remove observer: %s", observer);
         return mDataStore.removeObserver(observer);
     }
+
+    public boolean addKeyObserver(final Observer<KeyValue> observer) {
+        Logger.d("Add key observer: %s", observer);
+        return mDataStore.addObserver(observer, mCollection, mKey);
+    }
+
+    public boolean removeKeyObserver(final Observer<KeyValue> observer) {
+        Logger.d("Remove key observer: %s", observer);
+        return mDataStore.removeObserver(observer, mCollection, mKey);
+    }
 }
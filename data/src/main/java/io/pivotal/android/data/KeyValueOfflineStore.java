@@ -7,13 +7,50 @@ import android.content.Context;
 
 public class KeyValueOfflineStore extends OfflineStore<KeyValue> {
 
+    public static final class Backends {
+        public static final int PREFERENCES = 0;
+        public static final int DATABASE = 1;
+    }
+
+    private static volatile int sDefaultBackend = Backends.PREFERENCES;
+
+    public static void setDefaultBackend(final int backend) {
+        sDefaultBackend = backend;
+    }
+
+    public static int getDefaultBackend() {
+        return sDefaultBackend;
+    }
+
     public static KeyValueOfflineStore create(final Context context) {
-        final LocalStore<KeyValue> localStore = new KeyValueLocalStore(context);
+        return create(context, sDefaultBackend);
+    }
+
+    public static KeyValueOfflineStore create(final Context context, final int backend) {
+        final LocalStore<KeyValue> localStore = createLocalStore(context, backend);
         final RemoteStore<KeyValue> remoteStore = new KeyValueRemoteStore(context);
         return new KeyValueOfflineStore(context, localStore, remoteStore);
     }
 
+    private static LocalStore<KeyValue> createLocalStore(final Context context, final int backend) {
+        switch (backend) {
+            case Backends.PREFERENCES:
+                return new KeyValueLocalStore(context);
+
+            case Backends.DATABASE:
+                return new KeyValueDatabaseStore(context);
+
+            default:
+                throw new IllegalArgumentException("Unknown local store backend: " + backend);
+        }
+    }
+
     public KeyValueOfflineStore(final Context context, final LocalStore<KeyValue> localStore, final RemoteStore<KeyValue> remoteStore) {
         super(context, localStore, remoteStore);
     }
+
+    @Override
+    protected boolean hasLocalValue(final Response<KeyValue> response) {
+        return super.hasLocalValue(response) && response.object.value != null && response.object.value.length() > 0;
+    }
 }
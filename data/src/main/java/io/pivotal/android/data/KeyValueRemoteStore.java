@@ -10,6 +10,14 @@ import java.net.URL;
 
 public class KeyValueRemoteStore extends RemoteStore<KeyValue> {
 
+    private static final class Holder {
+        public static final SingleFlight<String> GETS = new SingleFlight<String>();
+    }
+
+    public static SingleFlight<String> getInFlightGets() {
+        return Holder.GETS;
+    }
+
     public KeyValueRemoteStore(final Context context) {
         this(new ObserverHandler<KeyValue>(), new RemoteClient.Default(context));
     }
@@ -45,16 +53,16 @@ public class KeyValueRemoteStore extends RemoteStore<KeyValue> {
 
         switch (request.method) {
             case Request.Methods.GET:
-                Logger.d("Get: " + request.object);
-                return getClient().get(url, request.force);
+                Logger.d("Get: %s", request.object);
+                return get(url, request.force);
 
             case Request.Methods.PUT:
-                Logger.d("Put: " + request.object);
+                Logger.d("Put: %s", request.object);
                 final byte[] entity = getEntity(request.object);
                 return getClient().put(url, entity, request.force);
 
             case Request.Methods.DELETE:
-                Logger.d("Delete: " + request.object);
+                Logger.d("Delete: %s", request.object);
                 return getClient().delete(url, request.force);
 
             default:
@@ -62,11 +70,23 @@ public class KeyValueRemoteStore extends RemoteStore<KeyValue> {
         }
     }
 
+    protected String get(final String url, final boolean force) throws Exception {
+        final String key = force ? "force:" + url : url;
+
+        return getInFlightGets().execute(key, new SingleFlight.Call<String>() {
+
+            @Override
+            public String call() throws Exception {
+                return getClient().get(url, force);
+            }
+        });
+    }
+
     protected String getUrl(final KeyValue keyValue) throws MalformedURLException {
         return new URL(Pivotal.getServiceUrl() + "/" + keyValue.collection + "/" + keyValue.key).toString();
     }
 
     protected byte[] getEntity(final KeyValue keyValue) {
-        return keyValue.value != null ? keyValue.value.getBytes() : null;
+        return keyValue.value != null ? keyValue.value.getBytes(StreamUtils.UTF_8) : null;
     }
 }
@@ -8,7 +8,10 @@ import android.content.SharedPreferences;
 import android.content.SharedPreferences.OnSharedPreferenceChangeListener;
 import android.os.AsyncTask;
 
-public abstract class LocalStore<T> implements DataStore<T> {
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class LocalStore<T> implements ExtendedDataStore<T> {
 
     static final String DATA_PREFIX = "PCFData:Data";
 
@@ -47,7 +50,46 @@ public abstract class LocalStore<T> implements DataStore<T> {
                     listener.onResponse(resp);
                 }
             }
-        }.execute();
+        }.executeOnExecutor(DataExecutors.getDiskExecutor());
+    }
+
+    @Override
+    public RequestFuture<T> submit(final Request<T> request) {
+        final RequestFuture<T> future = new RequestFuture<T>(this, request);
+        DataExecutors.getDiskExecutor().execute(future);
+        return future;
+    }
+
+    @Override
+    public List<Response<T>> executeAll(final List<Request<T>> requests) {
+        final List<Response<T>> responses = new ArrayList<Response<T>>(requests.size());
+
+        runInBatch(new Runnable() {
+
+            @Override
+            public void run() {
+                for (final Request<T> request : requests) {
+                    responses.add(execute(request));
+                }
+            }
+        });
+
+        return responses;
+    }
+
+    public void runInBatch(final Runnable batch) {
+        if (mPersistence == null) {
+            batch.run();
+            return;
+        }
+
+        mPersistence.beginTransaction();
+
+        try {
+            batch.run();
+        } finally {
+            mPersistence.endTransaction();
+        }
     }
 
     @Override
@@ -60,6 +102,16 @@ public abstract class LocalStore<T> implements DataStore<T> {
         return mHandler.removeObserver(observer);
     }
 
+    @Override
+    public boolean addObserver(final Observer<T> observer, final String collection, final String key) {
+        return mHandler.addObserver(observer, collection, key);
+    }
+
+    @Override
+    public boolean removeObserver(final Observer<T> observer, final String collection, final String key) {
+        return mHandler.removeObserver(observer, collection, key);
+    }
+
     protected static class ObserverProxy implements OnSharedPreferenceChangeListener {
 
         @Override
@@ -19,6 +19,7 @@ public class Logger {
     private static final String TAG_NAME = "Pivotal";
     private static final String UI_THREAD = "UI";
     private static final String BG_THREAD = "BG";
+    private static final String LOGGER_CLASS = Logger.class.getName();
 
     private static boolean sIsDebugEnabled = false;
     private static boolean sIsSetup = false;
@@ -99,6 +100,42 @@ public class Logger {
         }
     }
 
+    public static void v(final String format, final Object arg) {
+        if (sIsDebugEnabled) {
+            v(String.format(format, arg));
+        }
+    }
+
+    public static void v(final String format, final Object arg1, final Object arg2) {
+        if (sIsDebugEnabled) {
+            v(String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void v(final String format, final Object arg1, final Object arg2, final Object arg3) {
+        if (sIsDebugEnabled) {
+            v(String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    public static void v(final String format, final long arg) {
+        if (sIsDebugEnabled) {
+            v(String.format(format, arg));
+        }
+    }
+
+    public static void v(final String format, final long arg1, final Object arg2) {
+        if (sIsDebugEnabled) {
+            v(String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void v(final String format, final long arg1, final long arg2) {
+        if (sIsDebugEnabled) {
+            v(String.format(format, arg1, arg2));
+        }
+    }
+
     public static void d(final String message) {
         if (sIsDebugEnabled) {
             final String formattedString = format(message);
@@ -107,6 +144,42 @@ public class Logger {
         }
     }
 
+    public static void d(final String format, final Object arg) {
+        if (sIsDebugEnabled) {
+            d(String.format(format, arg));
+        }
+    }
+
+    public static void d(final String format, final Object arg1, final Object arg2) {
+        if (sIsDebugEnabled) {
+            d(String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void d(final String format, final Object arg1, final Object arg2, final Object arg3) {
+        if (sIsDebugEnabled) {
+            d(String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    public static void d(final String format, final long arg) {
+        if (sIsDebugEnabled) {
+            d(String.format(format, arg));
+        }
+    }
+
+    public static void d(final String format, final Object arg1, final long arg2) {
+        if (sIsDebugEnabled) {
+            d(String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void d(final String format, final long arg1, final long arg2) {
+        if (sIsDebugEnabled) {
+            d(String.format(format, arg1, arg2));
+        }
+    }
+
     public static void d(final String message, final Throwable tr) {
         if (sIsDebugEnabled) {
             final String formattedString = format(message) + ": " + Log.getStackTraceString(tr);
@@ -205,7 +278,7 @@ public class Logger {
     private static final class StackUtils {
 
         private static StackTraceElement getCallingStackTraceElement() {
-            final StackTraceElement[] elements = Thread.currentThread().getStackTrace();
+            final StackTraceElement[] elements = new Throwable().getStackTrace();
             final int index = getFirstElementIndexForLoggerClass(elements);
             return getFirstElementInCallingClass(elements, index);
         }
@@ -231,8 +304,7 @@ public class Logger {
         }
 
         private static boolean stackTraceElementIsForLoggerClass(final StackTraceElement s) {
-            final String className = Logger.class.getName();
-            return s.getClassName().equals(className);
+            return s.getClassName().equals(LOGGER_CLASS);
         }
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MeteredExecutor implements Executor {
+
+    private final Executor mExecutor;
+
+    private final AtomicInteger mPending = new AtomicInteger();
+    private final AtomicInteger mActive = new AtomicInteger();
+    private final AtomicLong mCompleted = new AtomicLong();
+    private final AtomicLong mTotalWait = new AtomicLong();
+    private final AtomicLong mMaxWait = new AtomicLong();
+
+    public MeteredExecutor(final Executor executor) {
+        mExecutor = executor;
+    }
+
+    public Executor getExecutor() {
+        return mExecutor;
+    }
+
+    @Override
+    public void execute(final Runnable runnable) {
+        final long enqueued = System.nanoTime();
+
+        mPending.incrementAndGet();
+
+        try {
+            mExecutor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    mPending.decrementAndGet();
+                    mActive.incrementAndGet();
+
+                    recordWait(System.nanoTime() - enqueued);
+
+                    try {
+                        runnable.run();
+                    } finally {
+                        mActive.decrementAndGet();
+                        mCompleted.incrementAndGet();
+                    }
+                }
+            });
+        } catch (final RuntimeException e) {
+            mPending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void recordWait(final long nanos) {
+        mTotalWait.addAndGet(nanos);
+
+        long max = mMaxWait.get();
+        while (nanos > max && !mMaxWait.compareAndSet(max, nanos)) {
+            max = mMaxWait.get();
+        }
+    }
+
+    public int getQueueDepth() {
+        return mPending.get();
+    }
+
+    public int getActiveCount() {
+        return mActive.get();
+    }
+
+    public long getCompletedCount() {
+        return mCompleted.get();
+    }
+
+    public long getAverageWaitMillis() {
+        final long completed = mCompleted.get();
+        return completed > 0 ? mTotalWait.get() / completed / 1000000 : 0;
+    }
+
+    public long getMaxWaitMillis() {
+        return mMaxWait.get() / 1000000;
+    }
+
+    @Override
+    public String toString() {
+        return "MeteredExecutor[queued=" + getQueueDepth() + ", active=" + getActiveCount() + ", completed=" + getCompletedCount() + ", avgWait=" + getAverageWaitMillis() + "ms, maxWait=" + getMaxWaitMillis() + "ms]";
+    }
+}
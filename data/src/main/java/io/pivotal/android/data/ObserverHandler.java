@@ -6,57 +6,343 @@ package io.pivotal.android.data;
 import android.os.Handler;
 import android.os.Message;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class ObserverHandler<T> extends Handler {
 
     private static final int MSG_NOTIFY = 1000;
     private static final int MSG_DELAY = 100;
 
+    private static volatile Executor sDefaultExecutor;
+
+    public static void setDefaultExecutor(final Executor executor) {
+        sDefaultExecutor = executor;
+    }
+
+    public static Executor getDefaultExecutor() {
+        return sDefaultExecutor;
+    }
+
     private final Object mLock = new Object();
-    private final Set<DataStore.Observer<T>> mObservers = new HashSet<DataStore.Observer<T>>();
+
+    private volatile Registry<T> mRegistry = new Registry<T>();
+    private volatile Executor mExecutor;
+
+    private final Object mPendingLock = new Object();
+    private final Map<String, Response<T>> mPending = new LinkedHashMap<String, Response<T>>();
+
+    private boolean mScheduled;
+    private long mSequence;
+
+    private final Runnable mFlush = new Runnable() {
+
+        @Override
+        public void run() {
+            dispatch(drainPending());
+        }
+    };
+
+    public void setExecutor(final Executor executor) {
+        mExecutor = executor;
+    }
+
+    public Executor getExecutor() {
+        final Executor executor = mExecutor;
+        return executor != null ? executor : sDefaultExecutor;
+    }
 
     public boolean addObserver(final DataStore.Observer<T> observer) {
-        Logger.d("Add Observer: " + observer);
+        Logger.d("Add Observer: %s", observer);
+        synchronized (mLock) {
+            final Registry<T> registry = mRegistry;
+            if (registry.observers.contains(observer)) {
+                return false;
+            }
+            mRegistry = new Registry<T>(with(registry.observers, observer), registry.collections, registry.keys);
+            return true;
+        }
+    }
+
+    public boolean addObserver(final DataStore.Observer<T> observer, final String collection, final String key) {
+        if (collection == null) {
+            return addObserver(observer);
+        }
+
+        Logger.d("Add Observer: %s, collection: %s, key: %s", observer, collection, key);
         synchronized (mLock) {
-            return mObservers.add(observer);
+            final Registry<T> registry = mRegistry;
+            if (key == null) {
+                if (contains(registry.collections, collection, observer)) {
+                    return false;
+                }
+                mRegistry = new Registry<T>(registry.observers, with(registry.collections, collection, observer), registry.keys);
+            } else {
+                final String identifier = getIdentifier(collection, key);
+                if (contains(registry.keys, identifier, observer)) {
+                    return false;
+                }
+                mRegistry = new Registry<T>(registry.observers, registry.collections, with(registry.keys, identifier, observer));
+            }
+            return true;
         }
     }
 
     public boolean removeObserver(final DataStore.Observer<T> observer) {
-        Logger.d("Remove Observer: " + observer);
+        Logger.d("Remove Observer: %s", observer);
+        synchronized (mLock) {
+            final Registry<T> registry = mRegistry;
+            final Set<DataStore.Observer<T>> observers = without(registry.observers, observer);
+            final Map<String, Set<DataStore.Observer<T>>> collections = withoutAll(registry.collections, observer);
+            final Map<String, Set<DataStore.Observer<T>>> keys = withoutAll(registry.keys, observer);
+
+            if (observers == registry.observers && collections == registry.collections && keys == registry.keys) {
+                return false;
+            }
+            mRegistry = new Registry<T>(observers, collections, keys);
+            return true;
+        }
+    }
+
+    public boolean removeObserver(final DataStore.Observer<T> observer, final String collection, final String key) {
+        if (collection == null) {
+            return removeObserver(observer);
+        }
+
+        Logger.d("Remove Observer: %s, collection: %s, key: %s", observer, collection, key);
         synchronized (mLock) {
-            return mObservers.remove(observer);
+            final Registry<T> registry = mRegistry;
+            if (key == null) {
+                if (!contains(registry.collections, collection, observer)) {
+                    return false;
+                }
+                mRegistry = new Registry<T>(registry.observers, without(registry.collections, collection, observer), registry.keys);
+            } else {
+                final String identifier = getIdentifier(collection, key);
+                if (!contains(registry.keys, identifier, observer)) {
+                    return false;
+                }
+                mRegistry = new Registry<T>(registry.observers, registry.collections, without(registry.keys, identifier, observer));
+            }
+            return true;
         }
     }
 
     public Set<DataStore.Observer<T>> getObservers() {
-        return mObservers;
+        return mRegistry.observers;
     }
 
     public void notifyResponse(final Response<T> response) {
-        final Message msg = obtainMessage(MSG_NOTIFY, response);
+        synchronized (mPendingLock) {
+            final String name = getPendingKey(response);
+
+            mPending.remove(name);
+            mPending.put(name, response);
+
+            if (!mScheduled) {
+                mScheduled = true;
+                schedule();
+            }
+        }
+    }
+
+    private void schedule() {
+        if (getExecutor() != null) {
+            DataExecutors.getScheduler().schedule(mFlush, MSG_DELAY, TimeUnit.MILLISECONDS);
+        } else {
+            sendMessageDelayed(obtainMessage(MSG_NOTIFY), MSG_DELAY);
+        }
+    }
 
-        removeMessages(MSG_NOTIFY);
-        sendMessageDelayed(msg, MSG_DELAY);
+    private String getPendingKey(final Response<T> response) {
+        if (response != null && response.object instanceof Identifiable) {
+            return ((Identifiable) response.object).getIdentifier();
+        } else {
+            return "#" + (mSequence++);
+        }
     }
 
     @Override
     public void handleMessage(final Message msg) {
         if (msg.what == MSG_NOTIFY) {
-            synchronized (mLock) {
-                notifyObservers(msg);
+            dispatch(drainPending());
+        }
+    }
+
+    private List<Response<T>> drainPending() {
+        synchronized (mPendingLock) {
+            final List<Response<T>> responses = new ArrayList<Response<T>>(mPending.values());
+            mPending.clear();
+            mScheduled = false;
+            return responses;
+        }
+    }
+
+    private void dispatch(final List<Response<T>> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+
+        final Executor executor = getExecutor();
+
+        if (executor != null) {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    notifyObservers(responses);
+                }
+            });
+        } else {
+            notifyObservers(responses);
+        }
+    }
+
+    private void notifyObservers(final List<Response<T>> responses) {
+        final Registry<T> registry = mRegistry;
+        final Map<DataStore.Observer<T>, List<Response<T>>> deliveries = new LinkedHashMap<DataStore.Observer<T>, List<Response<T>>>();
+
+        for (final Response<T> response : responses) {
+            for (final DataStore.Observer<T> observer : getMatchingObservers(registry, response)) {
+                List<Response<T>> delivery = deliveries.get(observer);
+                if (delivery == null) {
+                    delivery = new ArrayList<Response<T>>();
+                    deliveries.put(observer, delivery);
+                }
+                delivery.add(response);
+            }
+        }
+
+        for (final Map.Entry<DataStore.Observer<T>, List<Response<T>>> entry : deliveries.entrySet()) {
+            final DataStore.Observer<T> observer = entry.getKey();
+            final List<Response<T>> delivery = entry.getValue();
+
+            if (observer instanceof DataStore.BatchObserver) {
+                Logger.d("Notify Observer responses: %s", delivery.size());
+                ((DataStore.BatchObserver<T>) observer).onResponses(delivery);
+
+            } else {
+                for (final Response<T> response : delivery) {
+                    Logger.d("Notify Observer response: %s", response);
+                    observer.onResponse(response);
+                }
+            }
+        }
+    }
+
+    private static <T> Set<DataStore.Observer<T>> getMatchingObservers(final Registry<T> registry, final Response<T> response) {
+        if (response == null || !(response.object instanceof Identifiable)) {
+            return registry.observers;
+        }
+
+        final Identifiable object = (Identifiable) response.object;
+        final Set<DataStore.Observer<T>> collectionObservers = registry.collections.get(object.getCollection());
+        final Set<DataStore.Observer<T>> keyObservers = registry.keys.get(object.getIdentifier());
+
+        if (collectionObservers == null && keyObservers == null) {
+            return registry.observers;
+        }
+
+        final Set<DataStore.Observer<T>> observers = new LinkedHashSet<DataStore.Observer<T>>(registry.observers);
+
+        if (collectionObservers != null) {
+            observers.addAll(collectionObservers);
+        }
+
+        if (keyObservers != null) {
+            observers.addAll(keyObservers);
+        }
+
+        return observers;
+    }
+
+    private static String getIdentifier(final String collection, final String key) {
+        return collection + ":" + key;
+    }
+
+    private static <T> boolean contains(final Map<String, Set<DataStore.Observer<T>>> index, final String name, final DataStore.Observer<T> observer) {
+        final Set<DataStore.Observer<T>> observers = index.get(name);
+        return observers != null && observers.contains(observer);
+    }
+
+    private static <T> Set<DataStore.Observer<T>> with(final Set<DataStore.Observer<T>> observers, final DataStore.Observer<T> observer) {
+        final Set<DataStore.Observer<T>> copy = new HashSet<DataStore.Observer<T>>(observers);
+        copy.add(observer);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static <T> Set<DataStore.Observer<T>> without(final Set<DataStore.Observer<T>> observers, final DataStore.Observer<T> observer) {
+        if (!observers.contains(observer)) {
+            return observers;
+        }
+        final Set<DataStore.Observer<T>> copy = new HashSet<DataStore.Observer<T>>(observers);
+        copy.remove(observer);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static <T> Map<String, Set<DataStore.Observer<T>>> with(final Map<String, Set<DataStore.Observer<T>>> index, final String name, final DataStore.Observer<T> observer) {
+        final Map<String, Set<DataStore.Observer<T>>> copy = new HashMap<String, Set<DataStore.Observer<T>>>(index);
+        final Set<DataStore.Observer<T>> observers = index.get(name);
+        copy.put(name, with(observers != null ? observers : Collections.<DataStore.Observer<T>>emptySet(), observer));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static <T> Map<String, Set<DataStore.Observer<T>>> without(final Map<String, Set<DataStore.Observer<T>>> index, final String name, final DataStore.Observer<T> observer) {
+        final Map<String, Set<DataStore.Observer<T>>> copy = new HashMap<String, Set<DataStore.Observer<T>>>(index);
+        final Set<DataStore.Observer<T>> observers = without(index.get(name), observer);
+        if (observers.isEmpty()) {
+            copy.remove(name);
+        } else {
+            copy.put(name, observers);
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static <T> Map<String, Set<DataStore.Observer<T>>> withoutAll(final Map<String, Set<DataStore.Observer<T>>> index, final DataStore.Observer<T> observer) {
+        Map<String, Set<DataStore.Observer<T>>> copy = null;
+
+        for (final Map.Entry<String, Set<DataStore.Observer<T>>> entry : index.entrySet()) {
+            if (entry.getValue().contains(observer)) {
+                if (copy == null) {
+                    copy = new HashMap<String, Set<DataStore.Observer<T>>>(index);
+                }
+                final Set<DataStore.Observer<T>> observers = without(entry.getValue(), observer);
+                if (observers.isEmpty()) {
+                    copy.remove(entry.getKey());
+                } else {
+                    copy.put(entry.getKey(), observers);
+                }
             }
         }
+
+        return copy != null ? Collections.unmodifiableMap(copy) : index;
     }
 
-    @SuppressWarnings("unchecked")
-    private void notifyObservers(final Message msg) {
-        for (final DataStore.Observer<T> observer : mObservers) {
-            final Response<T> response = (Response<T>) msg.obj;
-            Logger.d("Notify Observer response: " + response);
-            observer.onResponse(response);
+    private static final class Registry<T> {
+
+        private final Set<DataStore.Observer<T>> observers;
+        private final Map<String, Set<DataStore.Observer<T>>> collections;
+        private final Map<String, Set<DataStore.Observer<T>>> keys;
+
+        private Registry() {
+            this(Collections.<DataStore.Observer<T>>emptySet(),
+                    Collections.<String, Set<DataStore.Observer<T>>>emptyMap(),
+                    Collections.<String, Set<DataStore.Observer<T>>>emptyMap());
+        }
+
+        private Registry(final Set<DataStore.Observer<T>> observers, final Map<String, Set<DataStore.Observer<T>>> collections, final Map<String, Set<DataStore.Observer<T>>> keys) {
+            this.observers = observers;
+            this.collections = collections;
+            this.keys = keys;
         }
     }
 }
@@ -6,7 +6,41 @@ package io.pivotal.android.data;
 import android.content.Context;
 import android.os.AsyncTask;
 
-public class OfflineStore<T> implements DataStore<T> {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class OfflineStore<T> implements ExtendedDataStore<T> {
+
+    public static final class ReadPolicies {
+        public static final int NETWORK_FIRST = 0;
+        public static final int STALE_WHILE_REVALIDATE = 1;
+    }
+
+    private static final Map<String, Long> sMaxAges = new ConcurrentHashMap<String, Long>();
+    private static final Map<String, Long> sValidations = new ConcurrentHashMap<String, Long>();
+    private static final Map<String, Boolean> sRevalidations = new ConcurrentHashMap<String, Boolean>();
+
+    private static volatile int sReadPolicy = ReadPolicies.NETWORK_FIRST;
+    private static volatile long sDefaultMaxAge = 0;
+
+    public static void setReadPolicy(final int policy) {
+        sReadPolicy = policy;
+    }
+
+    public static void setDefaultMaxAge(final long millis) {
+        sDefaultMaxAge = millis;
+    }
+
+    public static void setMaxAge(final String collection, final long millis) {
+        sMaxAges.put(collection, millis);
+    }
+
+    public static void clearValidations() {
+        sValidations.clear();
+    }
 
     private final Context mContext;
     private final LocalStore<T> mLocalStore;
@@ -25,15 +59,15 @@ public class OfflineStore<T> implements DataStore<T> {
 
         switch (request.method) {
             case Request.Methods.GET:
-                Logger.d("Get: " + request.object);
+                Logger.d("Get: %s", request.object);
                 return get(request);
 
             case Request.Methods.PUT:
-                Logger.d("Put: " + request.object);
+                Logger.d("Put: %s", request.object);
                 return executeWithFallback(request);
 
             case Request.Methods.DELETE:
-                Logger.d("Delete: " + request.object);
+                Logger.d("Delete: %s", request.object);
                 return executeWithFallback(request);
 
             default:
@@ -56,18 +90,117 @@ public class OfflineStore<T> implements DataStore<T> {
                     listener.onResponse(response);
                 }
             }
-        }.execute();
+        }.executeOnExecutor(DataExecutors.getNetworkExecutor());
     }
 
-    protected Response<T> get(final Request<T> request) {
-        if (isConnected()) {
-            return executeGetRemotely(request);
+    @Override
+    public RequestFuture<T> submit(final Request<T> request) {
+        final RequestFuture<T> future = new RequestFuture<T>(this, request);
+        DataExecutors.getNetworkExecutor().execute(future);
+        return future;
+    }
+
+    @Override
+    public List<Response<T>> executeAll(final List<Request<T>> requests) {
+        if (!isConnected()) {
+            return queueAll(requests);
+        }
+
+        final List<Response<T>> responses = new ArrayList<Response<T>>(Collections.<Response<T>>nCopies(requests.size(), null));
+        final List<Request<T>> remoteRequests = new ArrayList<Request<T>>(requests.size());
+        final List<Integer> remoteIndexes = new ArrayList<Integer>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            final Request<T> request = requests.get(i);
+            final Response<T> response = shouldGetLocally(request) ? getLocallyAndRevalidate(request) : null;
+
+            if (response != null) {
+                responses.set(i, response);
+            } else {
+                remoteRequests.add(request);
+                remoteIndexes.add(i);
+            }
+        }
+
+        if (remoteRequests.isEmpty()) {
+            return responses;
+        }
+
+        final List<Response<T>> remoteResponses = mRemoteStore.executeAll(remoteRequests);
+
+        mLocalStore.runInBatch(new Runnable() {
+
+            @Override
+            public void run() {
+                for (int i = 0; i < remoteRequests.size(); i++) {
+                    responses.set(remoteIndexes.get(i), handleRemoteResponse(remoteRequests.get(i), remoteResponses.get(i)));
+                }
+            }
+        });
+
+        return responses;
+    }
+
+    private List<Response<T>> queueAll(final List<Request<T>> requests) {
+        final List<Response<T>> responses = new ArrayList<Response<T>>(requests.size());
+
+        mLocalStore.runInBatch(new Runnable() {
+
+            @Override
+            public void run() {
+                for (final Request<T> request : requests) {
+                    if (request.method == Request.Methods.GET) {
+                        responses.add(queueGet(request));
+                    } else {
+                        responses.add(queueWithFallback(request));
+                    }
+                }
+            }
+        });
+
+        return responses;
+    }
+
+    private Response<T> handleRemoteResponse(final Request<T> request, final Response<T> response) {
+        if (request.method == Request.Methods.GET) {
+            return handleRemoteGetResponse(request, response);
+
+        } else if (response.isSuccess()) {
+            markValidated(request);
+            return mLocalStore.execute(request);
+
+        } else if (shouldQueue(request, response)) {
+            return queueWithFallback(request);
 
         } else {
+            return response;
+        }
+    }
+
+    protected Response<T> get(final Request<T> request) {
+        if (!isConnected()) {
             return queueGet(request);
+
+        } else if (shouldGetLocally(request)) {
+            return executeGetLocallyAndRevalidate(request);
+
+        } else {
+            return executeGetRemotely(request);
         }
     }
 
+    protected int getReadPolicy() {
+        return sReadPolicy;
+    }
+
+    protected boolean hasLocalValue(final Response<T> response) {
+        return response.isSuccess() && response.object != null;
+    }
+
+    protected boolean shouldQueue(final Request<T> request, final Response<T> response) {
+        return response.isRetryExhausted() && RetryPolicy.getPolicy(request.method).shouldQueueOnExhaustion();
+    }
+
     protected Response<T> executeWithFallback(final Request<T> request) {
         if (isConnected()) {
             return executeRemotely(request);
@@ -77,9 +210,95 @@ public class OfflineStore<T> implements DataStore<T> {
         }
     }
 
-    private Response<T> executeGetRemotely(final Request<T> request) {
+    private boolean shouldGetLocally(final Request<T> request) {
+        return request.method == Request.Methods.GET && getReadPolicy() == ReadPolicies.STALE_WHILE_REVALIDATE
+                && !request.force && request.object instanceof Identifiable;
+    }
+
+    private Response<T> executeGetLocallyAndRevalidate(final Request<T> request) {
+        final Response<T> response = getLocallyAndRevalidate(request);
+
+        if (response != null) {
+            return response;
+        } else {
+            return executeGetRemotely(request);
+        }
+    }
+
+    private Response<T> getLocallyAndRevalidate(final Request<T> request) {
+        final Response<T> response = mLocalStore.execute(request);
+
+        if (!hasLocalValue(response)) {
+            return null;
+        }
+
+        if (isStale((Identifiable) request.object)) {
+            revalidate(request);
+        }
+
+        return response;
+    }
+
+    protected boolean isStale(final Identifiable object) {
+        final Long validated = sValidations.get(object.getIdentifier());
+        final Long maxAge = sMaxAges.get(object.getCollection());
+        final long age = maxAge != null ? maxAge : sDefaultMaxAge;
+
+        return validated == null || System.currentTimeMillis() - validated >= age;
+    }
+
+    protected void revalidate(final Request<T> request) {
+        final String identifier = ((Identifiable) request.object).getIdentifier();
+
+        if (sRevalidations.put(identifier, Boolean.TRUE) != null) {
+            return;
+        }
+
+        DataExecutors.getNetworkExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    Logger.d("Revalidate: %s", request.object);
+                    executeRevalidation(request);
+                } finally {
+                    sRevalidations.remove(identifier);
+                }
+            }
+        });
+    }
+
+    protected void executeRevalidation(final Request<T> request) {
         final Response<T> response = mRemoteStore.execute(request);
 
+        if (response.isSuccess()) {
+            markValidated(request);
+            executePutLocally(request, response);
+
+        } else if (response.isNotFound()) {
+            markValidated(request);
+            executeDeleteLocally(request, response);
+
+        } else if (response.isNotModified()) {
+            markValidated(request);
+        }
+    }
+
+    private void markValidated(final Request<T> request) {
+        if (request.object instanceof Identifiable) {
+            sValidations.put(((Identifiable) request.object).getIdentifier(), System.currentTimeMillis());
+        }
+    }
+
+    private Response<T> executeGetRemotely(final Request<T> request) {
+        return handleRemoteGetResponse(request, mRemoteStore.execute(request));
+    }
+
+    private Response<T> handleRemoteGetResponse(final Request<T> request, final Response<T> response) {
+        if (response.isSuccess() || response.isNotFound() || response.isNotModified()) {
+            markValidated(request);
+        }
+
         if (response.isSuccess()) {
             return executePutLocally(request, response);
 
@@ -89,6 +308,9 @@ public class OfflineStore<T> implements DataStore<T> {
         } else if (response.isNotModified()) {
             return mLocalStore.execute(request);
 
+        } else if (shouldQueue(request, response)) {
+            return queueGet(request);
+
         } else {
             return response;
         }
@@ -113,8 +335,12 @@ public class OfflineStore<T> implements DataStore<T> {
         final Response<T> response = mRemoteStore.execute(request);
 
         if (response.isSuccess()) {
+            markValidated(request);
             return mLocalStore.execute(request);
 
+        } else if (shouldQueue(request, response)) {
+            return queueWithFallback(request);
+
         } else {
             return response;
         }
@@ -152,8 +378,20 @@ public class OfflineStore<T> implements DataStore<T> {
                 && mRemoteStore.removeObserver(observer);
     }
 
+    @Override
+    public boolean addObserver(final Observer<T> observer, final String collection, final String key) {
+        return mLocalStore.addObserver(observer, collection, key)
+                && mRemoteStore.addObserver(observer, collection, key);
+    }
+
+    @Override
+    public boolean removeObserver(final Observer<T> observer, final String collection, final String key) {
+        return mLocalStore.removeObserver(observer, collection, key)
+                && mRemoteStore.removeObserver(observer, collection, key);
+    }
+
     protected boolean isConnected() {
-        return Connectivity.isConnected(mContext);
+        return ConnectivityMonitor.getInstance().isConnected(mContext);
     }
 
     public RequestCache<T> getRequestCache() {
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public interface PendingRequestCodec<T> {
+
+    public byte[] encode(PendingRequest<T> request) throws IOException;
+
+    public PendingRequest<T> decode(byte[] record) throws IOException;
+
+    public static class Json<T> implements PendingRequestCodec<T> {
+
+        @Override
+        public byte[] encode(final PendingRequest<T> request) throws IOException {
+            return DataMapper.getInstance().getRequestWriter().writeValueAsBytes(request);
+        }
+
+        @Override
+        public PendingRequest<T> decode(final byte[] record) throws IOException {
+            return DataMapper.getInstance().getRequestReader().readValue(record);
+        }
+    }
+
+    public static class Binary<T> implements PendingRequestCodec<T> {
+
+        private static final int FORMAT_JSON = 0;
+        private static final int FORMAT_BINARY = 1;
+
+        private static final int FLAG_FORCE = 1;
+        private static final int FLAG_OBJECT = 2;
+        private static final int FLAG_FALLBACK = 4;
+        private static final int FLAG_SHIFT = 3;
+
+        private static final int MAX_INTERNED = 256;
+
+        private final Map<String, String> mCollections = new HashMap<String, String>();
+        private final PendingRequestCodec<T> mJson = new Json<T>();
+
+        @Override
+        public byte[] encode(final PendingRequest<T> request) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream output = new DataOutputStream(bytes);
+
+            if (isBinary(request)) {
+                output.writeByte(FORMAT_BINARY);
+                writeRequest(output, request);
+            } else {
+                output.writeByte(FORMAT_JSON);
+                output.write(mJson.encode(request));
+            }
+
+            output.flush();
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public PendingRequest<T> decode(final byte[] record) throws IOException {
+            if (record.length == 0) {
+                throw new IOException("Empty pending request record.");
+            }
+
+            if (record[0] == FORMAT_JSON) {
+                final byte[] json = new byte[record.length - 1];
+                System.arraycopy(record, 1, json, 0, json.length);
+                return mJson.decode(json);
+
+            } else if (record[0] == FORMAT_BINARY) {
+                final DataInputStream input = new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1));
+                return readRequest(input);
+
+            } else {
+                throw new IOException("Unknown pending request format: " + record[0]);
+            }
+        }
+
+        private static boolean isBinary(final PendingRequest<?> request) {
+            return request.method >= 0
+                    && (request.object == null || request.object.getClass() == KeyValue.class)
+                    && (request.fallback == null || request.fallback.getClass() == KeyValue.class);
+        }
+
+        private void writeRequest(final DataOutputStream output, final PendingRequest<T> request) throws IOException {
+            final KeyValue object = (KeyValue) request.object;
+            final KeyValue fallback = (KeyValue) request.fallback;
+
+            int flags = request.force ? FLAG_FORCE : 0;
+            flags |= object != null ? FLAG_OBJECT : 0;
+            flags |= fallback != null ? FLAG_FALLBACK : 0;
+
+            writeVarint(output, (request.method << FLAG_SHIFT) | flags);
+
+            if (object != null) {
+                writeString(output, object.collection);
+                writeString(output, object.key);
+                writeString(output, object.value);
+            }
+
+            if (fallback != null) {
+                final boolean shared = object != null && equals(object.collection, fallback.collection) && equals(object.key, fallback.key);
+
+                writeVarint(output, shared ? 1 : 0);
+
+                if (!shared) {
+                    writeString(output, fallback.collection);
+                    writeString(output, fallback.key);
+                }
+
+                writeString(output, fallback.value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private PendingRequest<T> readRequest(final DataInputStream input) throws IOException {
+            final int header = readVarint(input);
+            final PendingRequest<KeyValue> request = new PendingRequest<KeyValue>();
+
+            request.method = header >>> FLAG_SHIFT;
+            request.force = (header & FLAG_FORCE) != 0;
+
+            if ((header & FLAG_OBJECT) != 0) {
+                final String collection = intern(readString(input));
+                final String key = readString(input);
+                request.object = new KeyValue(collection, key, readString(input));
+            }
+
+            if ((header & FLAG_FALLBACK) != 0) {
+                final boolean shared = readVarint(input) == 1 && request.object != null;
+                final String collection = shared ? request.object.collection : intern(readString(input));
+                final String key = shared ? request.object.key : readString(input);
+                request.fallback = new KeyValue(collection, key, readString(input));
+            }
+
+            return (PendingRequest<T>) (PendingRequest<?>) request;
+        }
+
+        private String intern(final String collection) {
+            if (collection == null) {
+                return null;
+            }
+
+            synchronized (mCollections) {
+                final String interned = mCollections.get(collection);
+                if (interned != null) {
+                    return interned;
+                }
+                if (mCollections.size() < MAX_INTERNED) {
+                    mCollections.put(collection, collection);
+                }
+                return collection;
+            }
+        }
+
+        private static boolean equals(final String a, final String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        private static void writeString(final DataOutputStream output, final String value) throws IOException {
+            if (value == null) {
+                writeVarint(output, 0);
+            } else {
+                final byte[] bytes = value.getBytes(StreamUtils.UTF_8);
+                writeVarint(output, bytes.length + 1);
+                output.write(bytes);
+            }
+        }
+
+        private static String readString(final DataInputStream input) throws IOException {
+            final int length = readVarint(input);
+
+            if (length == 0) {
+                return null;
+            }
+
+            if (length < 0 || length - 1 > input.available()) {
+                throw new IOException("Invalid string length in pending request record: " + length);
+            }
+
+            final byte[] bytes = new byte[length - 1];
+            input.readFully(bytes);
+            return new String(bytes, StreamUtils.UTF_8);
+        }
+
+        private static void writeVarint(final DataOutputStream output, final int value) throws IOException {
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0) {
+                output.writeByte((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            output.writeByte(remaining);
+        }
+
+        private static int readVarint(final DataInputStream input) throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                final int b = input.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in pending request record.");
+        }
+    }
+}
@@ -8,21 +8,30 @@ import android.os.Build;
 import android.text.TextUtils;
 
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.AbortableHttpRequest;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHeader;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public interface RemoteClient {
 
@@ -36,6 +45,27 @@ public interface RemoteClient {
 
     public static class Default implements RemoteClient {
 
+        public static interface BodyReader<V> {
+            public V read(InputStream stream, long length) throws IOException;
+        }
+
+        public static final class BodyReaders {
+
+            public static final BodyReader<String> STRING = new BodyReader<String>() {
+                @Override
+                public String read(final InputStream stream, final long length) throws IOException {
+                    return new String(StreamUtils.readBytes(stream, length), StreamUtils.UTF_8);
+                }
+            };
+
+            public static final BodyReader<byte[]> BYTES = new BodyReader<byte[]>() {
+                @Override
+                public byte[] read(final InputStream stream, final long length) throws IOException {
+                    return StreamUtils.readBytes(stream, length);
+                }
+            };
+        }
+
         public static final class Timeouts {
             public static final int CONNECTION = 4000;
             public static final int SOCKET = 10000;
@@ -47,19 +77,99 @@ public interface RemoteClient {
             public static final String IF_NONE_MATCH = "If-None-Match";
             public static final String ETAG = "Etag";
             public static final String USER_AGENT = "User-Agent";
+            public static final String ACCEPT_ENCODING = "Accept-Encoding";
+            public static final String CONTENT_ENCODING = "Content-Encoding";
+        }
+
+        public static final String GZIP = "gzip";
+
+        public static final String BEARER = "Bearer ";
+
+        private static final String USER_AGENT = "PCFData/" + BuildConfig.SDK_VERSION + "; Android Version " + Build.VERSION.RELEASE + " (Build " + Build.ID + ")";
+
+        private static final Object HEADERS_LOCK = new Object();
+
+        private static volatile Header[] sHeaders = new Header[0];
+        private static volatile AuthHeader sAuthHeader;
+        private static volatile int sCompressionThreshold = -1;
+
+        public static void setCompressionThreshold(final int bytes) {
+            sCompressionThreshold = bytes;
+        }
+
+        public static int getCompressionThreshold() {
+            return sCompressionThreshold;
+        }
+
+        public static void setHeader(final String name, final String value) {
+            synchronized (HEADERS_LOCK) {
+                final List<Header> headers = withoutHeader(name);
+                if (value != null) {
+                    headers.add(new BasicHeader(name, value));
+                }
+                sHeaders = headers.toArray(new Header[headers.size()]);
+            }
+        }
+
+        public static void removeHeader(final String name) {
+            setHeader(name, null);
+        }
+
+        public static Header[] getHeaders() {
+            return sHeaders.clone();
+        }
+
+        private static List<Header> withoutHeader(final String name) {
+            final Header[] current = sHeaders;
+            final List<Header> headers = new ArrayList<Header>(current.length + 1);
+            for (final Header header : current) {
+                if (!header.getName().equalsIgnoreCase(name)) {
+                    headers.add(header);
+                }
+            }
+            return headers;
+        }
+
+        protected static String getAuthorization(final String accessToken) {
+            final AuthHeader cached = sAuthHeader;
+            if (cached != null && cached.token.equals(accessToken)) {
+                return cached.value;
+            }
+
+            final AuthHeader header = new AuthHeader(accessToken);
+            sAuthHeader = header;
+            return header.value;
+        }
+
+        private static final class AuthHeader {
+
+            private final String token;
+            private final String value;
+
+            private AuthHeader(final String token) {
+                this.token = token;
+                this.value = BEARER + token;
+            }
         }
 
         private final EtagStore mEtagStore;
         private final Context mContext;
+        private final ClientConnectionManager mConnectionManager;
+
+        private volatile HttpClient mHttpClient;
 
         public Default(final Context context) {
-            mEtagStore = new EtagStore(context);
-            mContext = context;
+            this(context, EtagStore.getInstance(context));
         }
 
         public Default(final Context context, final EtagStore store) {
+            this(context, store, ConnectionPool.getInstance());
+        }
+
+        public Default(final Context context, final EtagStore store, final ClientConnectionManager manager) {
             mEtagStore = store;
             mContext = context;
+            mConnectionManager = manager;
         }
 
         @Override
@@ -68,13 +178,57 @@ public interface RemoteClient {
             return execute(request, force);
         }
 
+        public <V> V get(final String url, final boolean force, final BodyReader<V> reader) throws Exception {
+            final HttpGet request = new HttpGet(url);
+            final HttpResponse response = executeForResponse(request, force);
+
+            checkResponse(response, url);
+
+            return readResponseBody(response, reader);
+        }
+
         @Override
         public String put(final String url, final byte[] entity, final boolean force) throws Exception {
             final HttpPut request = new HttpPut(url);
-            request.setEntity(new ByteArrayEntity(entity));
+            request.setEntity(createEntity(entity));
 
             final String result = execute(request, force);
-            return TextUtils.isEmpty(result) ? new String(entity) : result;
+            return TextUtils.isEmpty(result) ? new String(entity, StreamUtils.UTF_8) : result;
+        }
+
+        protected HttpEntity createEntity(final byte[] entity) throws IOException {
+            final int threshold = sCompressionThreshold;
+
+            if (threshold >= 0 && entity != null && entity.length >= threshold) {
+                final byte[] compressed = gzip(entity);
+
+                if (compressed.length < entity.length) {
+                    Logger.v("Request Body - gzip: %s -> %s", entity.length, compressed.length);
+                    CompressionStats.getInstance().recordRequest(compressed.length, entity.length);
+
+                    final ByteArrayEntity byteArrayEntity = new ByteArrayEntity(compressed);
+                    byteArrayEntity.setContentEncoding(GZIP);
+                    return byteArrayEntity;
+                }
+            }
+
+            final int length = entity != null ? entity.length : 0;
+            CompressionStats.getInstance().recordRequest(length, length);
+
+            return new ByteArrayEntity(entity);
+        }
+
+        private static byte[] gzip(final byte[] data) throws IOException {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2);
+            final GZIPOutputStream stream = new GZIPOutputStream(output);
+
+            try {
+                stream.write(data);
+            } finally {
+                stream.close();
+            }
+
+            return output.toByteArray();
         }
 
         @Override
@@ -85,39 +239,141 @@ public interface RemoteClient {
 
         protected String execute(final HttpUriRequest request, final boolean force) throws Exception {
             final String url = request.getURI().toString();
+            final HttpResponse response = executeForResponse(request, force);
+
+            return handleResponse(response, url);
+        }
+
+        protected HttpResponse executeForResponse(final HttpUriRequest request, final boolean force) throws Exception {
             final HttpClient httpClient = getHttpClient();
 
             addHeaders(request, force);
+            registerAbortable(request);
+
+            final RetryPolicy policy = getRetryPolicy(request);
+            final RetryStats stats = RetryStats.getInstance();
+
+            for (int attempt = 1; ; attempt++) {
+                stats.recordAttempt();
+
+                final HttpResponse response;
+
+                try {
+                    response = executeAttempt(httpClient, request);
+
+                } catch (final IOException e) {
+                    if (policy.getMaxAttempts() == 1 || isCancelled() || !policy.isRetryable(e)) {
+                        throw e;
+                    }
+
+                    if (!policy.hasAttemptsLeft(attempt)) {
+                        stats.recordExhausted();
+                        throw new RetryExhaustedException(e, attempt);
+                    }
 
+                    Logger.v("Request failed (attempt %s): %s", attempt, e);
+                    backoff(policy, attempt);
+                    continue;
+                }
+
+                if (policy.getMaxAttempts() == 1 || isCancelled() || !policy.isRetryable(response.getStatusLine().getStatusCode())) {
+                    if (attempt > 1 && isRecovered(response.getStatusLine().getStatusCode())) {
+                        stats.recordRecovered();
+                    }
+                    return response;
+                }
+
+                final StatusLine statusLine = response.getStatusLine();
+
+                consumeContent(response);
+
+                if (!policy.hasAttemptsLeft(attempt)) {
+                    stats.recordExhausted();
+                    throw new RetryExhaustedException(statusLine.getStatusCode(), statusLine.getReasonPhrase(), attempt);
+                }
+
+                Logger.v("Response Status (attempt %s): %s", attempt, statusLine);
+                backoff(policy, attempt);
+            }
+        }
+
+        private static boolean isRecovered(final int statusCode) {
+            return (statusCode >= 200 && statusCode < 300) || statusCode == 304;
+        }
+
+        protected HttpResponse executeAttempt(final HttpClient httpClient, final HttpUriRequest request) throws Exception {
             HttpResponse response = httpClient.execute(request);
 
             if (response.getStatusLine().getStatusCode() == 401) {
-                Logger.v("Response 401 (invalidating token).");
-                invalidateAccessToken();
+                consumeContent(response);
+
+                Logger.v("Response 401 (refreshing token).");
+                invalidateAccessToken(getAccessToken(request));
 
                 Logger.v("Response 401 (requesting new token).");
+                request.removeHeaders(Headers.AUTHORIZATION);
                 addAuthHeader(request);
 
                 Logger.v("Response 401 (retrying).");
                 response = httpClient.execute(request);
             }
 
-            return handleResponse(response, url);
+            return response;
+        }
+
+        protected RetryPolicy getRetryPolicy(final HttpUriRequest request) {
+            final String method = request.getMethod();
+
+            if (HttpGet.METHOD_NAME.equals(method)) {
+                return RetryPolicy.getPolicy(Request.Methods.GET);
+            } else if (HttpPut.METHOD_NAME.equals(method)) {
+                return RetryPolicy.getPolicy(Request.Methods.PUT);
+            } else if (HttpDelete.METHOD_NAME.equals(method)) {
+                return RetryPolicy.getPolicy(Request.Methods.DELETE);
+            } else {
+                return RetryPolicy.NONE;
+            }
+        }
+
+        protected void backoff(final RetryPolicy policy, final int attempt) throws InterruptedException {
+            final long delay = policy.getDelay(attempt);
+
+            RetryStats.getInstance().recordRetry(delay);
+
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        }
+
+        protected boolean isCancelled() {
+            final RequestFuture<?> future = RequestFuture.current();
+            return future != null && future.isCancelled();
+        }
+
+        protected void registerAbortable(final HttpUriRequest request) {
+            final RequestFuture<?> future = RequestFuture.current();
+            if (future != null && request instanceof AbortableHttpRequest) {
+                future.setAbortable((AbortableHttpRequest) request);
+            }
         }
 
         protected void addHeaders(final HttpUriRequest request, final boolean force) throws Exception {
             final String url = request.getURI().toString();
 
-            Logger.v("Request Url: " + url);
+            Logger.v("Request Url: %s", url);
 
             addAuthHeader(request);
 
             addUserAgentHeader(request);
 
+            addEncodingHeader(request);
+
+            addStaticHeaders(request);
+
             if (!force) {
                 addEtagHeader(request, url);
             } else {
-                Logger.e("Request Header - No Etag. Request Forced.");
+                Logger.v("Request Header - No Etag. Request Forced.");
             }
         }
 
@@ -126,26 +382,29 @@ public interface RemoteClient {
 
 
         protected String provideAccessToken() {
-            final TokenProvider provider = TokenProviderFactory.obtainTokenProvider();
-            if (provider != null) {
-                return provider.provideAccessToken(mContext);
-            } else {
-                return null;
-            }
+            return TokenCache.getInstance().getToken(mContext);
         }
 
-        protected void invalidateAccessToken() {
-            final TokenProvider provider = TokenProviderFactory.obtainTokenProvider();
-            if (provider != null) {
-                provider.invalidateAccessToken(mContext);
+        protected void invalidateAccessToken(final String staleToken) {
+            TokenCache.getInstance().refresh(mContext, staleToken);
+        }
+
+        protected String getAccessToken(final HttpUriRequest request) {
+            final Header header = request.getFirstHeader(Headers.AUTHORIZATION);
+            final String value = header != null ? header.getValue() : null;
+
+            if (value != null && value.startsWith(BEARER)) {
+                return value.substring(BEARER.length());
+            } else {
+                return null;
             }
         }
 
         protected void addAuthHeader(final HttpUriRequest request) {
             final String accessToken = provideAccessToken();
             if (accessToken != null) {
-                Logger.v("Request Header - " + Headers.AUTHORIZATION + ": Bearer " + accessToken);
-                request.addHeader(Headers.AUTHORIZATION, "Bearer " + accessToken);
+                Logger.v("Request Header - " + Headers.AUTHORIZATION + ": Bearer %s", accessToken);
+                request.addHeader(Headers.AUTHORIZATION, getAuthorization(accessToken));
             } else {
                 Logger.e("Request Header - No access token found.");
                 throw new IllegalStateException("Could not retrieve access token.");
@@ -160,10 +419,10 @@ public interface RemoteClient {
                 if (!TextUtils.isEmpty(etag)) {
                     if (request instanceof HttpGet) {
                         request.addHeader(Headers.IF_NONE_MATCH, etag);
-                        Logger.v("Request Header - " + Headers.IF_NONE_MATCH + ": " + etag);
+                        Logger.v("Request Header - " + Headers.IF_NONE_MATCH + ": %s", etag);
                     } else {
                         request.addHeader(Headers.IF_MATCH, etag);
-                        Logger.v("Request Header - " + Headers.IF_MATCH + ": " + etag);
+                        Logger.v("Request Header - " + Headers.IF_MATCH + ": %s", etag);
                     }
                 } else {
                     if (request instanceof HttpGet) {
@@ -175,14 +434,23 @@ public interface RemoteClient {
                     }
                 }
             } else {
-                Logger.e("Request Header - Etags Disabled.");
+                Logger.v("Request Header - Etags Disabled.");
             }
         }
 
+        protected void addEncodingHeader(final HttpUriRequest request) {
+            request.addHeader(Headers.ACCEPT_ENCODING, GZIP);
+        }
+
         protected void addUserAgentHeader(final HttpUriRequest request) {
-            final String sdkVersion = String.format("PCFData/%s;", BuildConfig.SDK_VERSION);
-            final String androidVersion = String.format("Android Version %s (Build %s)", Build.VERSION.RELEASE, Build.ID);
-            request.addHeader(Headers.USER_AGENT, sdkVersion + " " + androidVersion);
+            request.addHeader(Headers.USER_AGENT, USER_AGENT);
+        }
+
+        protected void addStaticHeaders(final HttpUriRequest request) {
+            final Header[] headers = sHeaders;
+            for (int i = 0; i < headers.length; i++) {
+                request.addHeader(headers[i]);
+            }
         }
 
 
@@ -190,17 +458,46 @@ public interface RemoteClient {
 
 
         protected HttpClient getHttpClient() {
+            if (mHttpClient == null) {
+                synchronized (this) {
+                    if (mHttpClient == null) {
+                        mHttpClient = createHttpClient();
+                    }
+                }
+            }
+            return mHttpClient;
+        }
+
+        protected HttpClient createHttpClient() {
             final HttpParams params = new BasicHttpParams();
             HttpConnectionParams.setConnectionTimeout(params, Timeouts.CONNECTION);
             HttpConnectionParams.setSoTimeout(params, Timeouts.SOCKET);
+            HttpConnectionParams.setStaleCheckingEnabled(params, true);
+
+            return new DefaultHttpClient(mConnectionManager, params);
+        }
 
-            return new DefaultHttpClient(params);
+        protected void consumeContent(final HttpResponse response) {
+            final HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                try {
+                    entity.consumeContent();
+                } catch (final IOException e) {
+                    Logger.ex(e);
+                }
+            }
         }
 
         protected String handleResponse(final HttpResponse response, final String url) throws Exception {
+            checkResponse(response, url);
+
+            return getResponseBody(response);
+        }
+
+        protected void checkResponse(final HttpResponse response, final String url) throws Exception {
             final StatusLine statusLine = response.getStatusLine();
 
-            Logger.v("Response Status: " + statusLine);
+            Logger.v("Response Status: %s", statusLine);
 
             final int statusCode = statusLine.getStatusCode();
             final String reasonPhrase = statusLine.getReasonPhrase();
@@ -210,6 +507,8 @@ public interface RemoteClient {
                     mEtagStore.put(url, "");
                 }
 
+                consumeContent(response);
+
                 throw new DataHttpException(statusCode, reasonPhrase);
             }
 
@@ -217,21 +516,46 @@ public interface RemoteClient {
                 final Header header = response.getFirstHeader(Headers.ETAG);
                 final String etag = header != null ? header.getValue() : "";
 
-                Logger.v("Response Header - " + Headers.ETAG + ": " + etag + ", url: " + url);
+                Logger.v("Response Header - " + Headers.ETAG + ": %s, url: %s", etag, url);
 
                 mEtagStore.put(url, etag);
             }
-
-            return getResponseBody(response);
         }
 
         protected String getResponseBody(final HttpResponse response) throws IOException {
-            final InputStream inputStream = response.getEntity().getContent();
-            final String result = StreamUtils.consumeAndClose(inputStream);
+            final String result = readResponseBody(response, BodyReaders.STRING);
 
-            Logger.v("Response Body: " + result);
+            Logger.v("Response Body: %s", result);
 
             return result;
         }
+
+        protected <V> V readResponseBody(final HttpResponse response, final BodyReader<V> reader) throws IOException {
+            final HttpEntity entity = response.getEntity();
+            final CompressionStats.CountingInputStream inputStream = new CompressionStats.CountingInputStream(entity.getContent());
+
+            try {
+                if (isGzipped(entity)) {
+                    final CompressionStats.CountingInputStream decoded = new CompressionStats.CountingInputStream(new GZIPInputStream(inputStream));
+                    final long length = entity.getContentLength();
+
+                    final V result = reader.read(decoded, length > 0 ? length * 4 : -1);
+                    CompressionStats.getInstance().recordResponse(inputStream.getCount(), decoded.getCount());
+                    return result;
+
+                } else {
+                    final V result = reader.read(inputStream, entity.getContentLength());
+                    CompressionStats.getInstance().recordResponse(inputStream.getCount(), inputStream.getCount());
+                    return result;
+                }
+            } finally {
+                inputStream.close();
+            }
+        }
+
+        private static boolean isGzipped(final HttpEntity entity) {
+            final Header header = entity.getContentEncoding();
+            return header != null && GZIP.equalsIgnoreCase(header.getValue());
+        }
     }
 }
@@ -6,7 +6,11 @@ package io.pivotal.android.data;
 import android.content.Context;
 import android.os.AsyncTask;
 
-public abstract class RemoteStore<T> implements DataStore<T> {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+public abstract class RemoteStore<T> implements ExtendedDataStore<T> {
 
     private final RemoteClient mClient;
     private final ObserverHandler<T> mHandler;
@@ -43,7 +47,53 @@ public abstract class RemoteStore<T> implements DataStore<T> {
                     listener.onResponse(resp);
                 }
             }
-        }.execute();
+        }.executeOnExecutor(DataExecutors.getNetworkExecutor());
+    }
+
+    @Override
+    public RequestFuture<T> submit(final Request<T> request) {
+        final RequestFuture<T> future = new RequestFuture<T>(this, request);
+        DataExecutors.getNetworkExecutor().execute(future);
+        return future;
+    }
+
+    @Override
+    public List<Response<T>> executeAll(final List<Request<T>> requests) {
+        final List<RequestFuture<T>> futures = new ArrayList<RequestFuture<T>>(requests.size());
+
+        for (final Request<T> request : requests) {
+            final RequestFuture<T> future = new RequestFuture<T>(this, request);
+
+            if (!futures.isEmpty()) {
+                DataExecutors.getNetworkExecutor().execute(future);
+            }
+
+            futures.add(future);
+        }
+
+        final List<Response<T>> responses = new ArrayList<Response<T>>(futures.size());
+
+        for (final RequestFuture<T> future : futures) {
+            future.run();
+            responses.add(getResponse(future));
+        }
+
+        return responses;
+    }
+
+    private Response<T> getResponse(final RequestFuture<T> future) {
+        try {
+            return future.get();
+
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response<T>(future.getRequest().object, new DataError(e));
+
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            final Exception exception = cause instanceof Exception ? (Exception) cause : e;
+            return new Response<T>(future.getRequest().object, new DataError(exception));
+        }
     }
 
     @Override
@@ -55,4 +105,14 @@ public abstract class RemoteStore<T> implements DataStore<T> {
     public boolean removeObserver(final Observer<T> observer) {
         return mHandler.removeObserver(observer);
     }
+
+    @Override
+    public boolean addObserver(final Observer<T> observer, final String collection, final String key) {
+        return mHandler.addObserver(observer, collection, key);
+    }
+
+    @Override
+    public boolean removeObserver(final Observer<T> observer, final String collection, final String key) {
+        return mHandler.removeObserver(observer, collection, key);
+    }
 }
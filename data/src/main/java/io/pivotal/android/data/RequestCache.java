@@ -4,7 +4,8 @@
 package io.pivotal.android.data;
 
 import android.content.Context;
-import android.os.AsyncTask;
+
+import java.io.File;
 
 public interface RequestCache<T> {
 
@@ -17,18 +18,27 @@ public interface RequestCache<T> {
     public static class Default<T> implements RequestCache<T> {
 
         private static final String REQUEST_CACHE = "PCFData:RequestCache";
+        private static final String REQUEST_JOURNAL = "PCFData-Requests.journal";
 
         private final RequestCacheQueue<T> mQueue;
         private final RequestCacheExecutor<T> mExecutor;
+        private final RequestCacheCoalescer<T> mCoalescer;
 
         public Default(final Context context, final OfflineStore<T> offlineStore, final DataStore<T> fallbackStore) {
-            mQueue = new RequestCacheQueue<T>(new DataPersistence(context, REQUEST_CACHE));
+            final File journal = new File(context.getFilesDir(), REQUEST_JOURNAL);
+            mCoalescer = new RequestCacheCoalescer<T>();
+            mQueue = new RequestCacheQueue<T>(new DataPersistence(context, REQUEST_CACHE), RequestJournal.<T>open(journal), mCoalescer);
             mExecutor = new RequestCacheExecutor<T>(offlineStore, fallbackStore);
         }
 
         public Default(final RequestCacheQueue<T> queue, final RequestCacheExecutor<T> executor) {
+            this(queue, executor, new RequestCacheCoalescer<T>());
+        }
+
+        public Default(final RequestCacheQueue<T> queue, final RequestCacheExecutor<T> executor, final RequestCacheCoalescer<T> coalescer) {
             mQueue = queue;
             mExecutor = executor;
+            mCoalescer = coalescer;
         }
 
         protected PendingRequest<T> createPendingRequest(final Request<T> request) {
@@ -45,20 +55,18 @@ public interface RequestCache<T> {
         public void executePending() {
             final PendingRequest.List<T> requests = mQueue.empty();
 
-            mExecutor.execute(requests);
+            mExecutor.execute(mCoalescer.coalesce(requests));
         }
 
         @Override
         public void executePendingAsync() {
-            new AsyncTask<Void, Void, Void>() {
+            DataExecutors.getNetworkExecutor().execute(new Runnable() {
 
                 @Override
-                protected Void doInBackground(final Void... params) {
+                public void run() {
                     executePending();
-                    return null;
                 }
-
-            }.execute();
+            });
         }
     }
 
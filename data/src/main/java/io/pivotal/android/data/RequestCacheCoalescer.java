@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RequestCacheCoalescer<T> {
+
+    public PendingRequest.List<T> coalesce(final List<PendingRequest<T>> requests) {
+        final List<Lane<T>> lanes = new ArrayList<Lane<T>>();
+        final Map<String, Lane<T>> keyedLanes = new HashMap<String, Lane<T>>();
+
+        for (final PendingRequest<T> request : requests) {
+            final String identifier = getIdentifier(request);
+
+            if (identifier == null || !isCoalescable(request)) {
+                lanes.add(new Lane<T>(request));
+                continue;
+            }
+
+            Lane<T> lane = keyedLanes.get(identifier);
+            if (lane == null) {
+                lane = new Lane<T>();
+                keyedLanes.put(identifier, lane);
+                lanes.add(lane);
+            }
+
+            lane.add(request);
+        }
+
+        final PendingRequest.List<T> coalesced = new PendingRequest.List<T>();
+
+        for (final Lane<T> lane : lanes) {
+            lane.drainTo(coalesced);
+        }
+
+        if (coalesced.size() < requests.size()) {
+            Logger.d("Coalesced %s pending requests into %s", requests.size(), coalesced.size());
+        }
+
+        return coalesced;
+    }
+
+    private static boolean isCoalescable(final Request<?> request) {
+        switch (request.method) {
+            case Request.Methods.GET:
+            case Request.Methods.PUT:
+            case Request.Methods.DELETE:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    protected String getIdentifier(final PendingRequest<T> request) {
+        if (request.object instanceof Identifiable) {
+            return ((Identifiable) request.object).getIdentifier();
+        } else {
+            return null;
+        }
+    }
+
+    private static final class Lane<T> {
+
+        private PendingRequest<T> mWrite;
+        private PendingRequest<T> mGet;
+        private PendingRequest<T> mOther;
+
+        public Lane() {}
+
+        public Lane(final PendingRequest<T> request) {
+            mOther = request;
+        }
+
+        public void add(final PendingRequest<T> request) {
+            if (request.method == Request.Methods.GET) {
+                mGet = request;
+            } else {
+                mWrite = supersede(mWrite, request);
+            }
+        }
+
+        private static <T> PendingRequest<T> supersede(final PendingRequest<T> earlier, final PendingRequest<T> later) {
+            if (earlier == null) {
+                return later;
+            }
+
+            final PendingRequest<T> merged = new PendingRequest<T>(later);
+            merged.fallback = earlier.fallback;
+            return merged;
+        }
+
+        public void drainTo(final List<PendingRequest<T>> requests) {
+            if (mOther != null) {
+                requests.add(mOther);
+            }
+            if (mWrite != null) {
+                requests.add(mWrite);
+            }
+            if (mGet != null) {
+                requests.add(mGet);
+            }
+        }
+    }
+}
@@ -3,20 +3,135 @@
  */
 package io.pivotal.android.data;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class RequestCacheExecutor<T> {
 
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static volatile int sDefaultParallelism = DEFAULT_PARALLELISM;
+
+    public static void setDefaultParallelism(final int parallelism) {
+        sDefaultParallelism = Math.max(1, parallelism);
+    }
+
+    public static int getDefaultParallelism() {
+        return sDefaultParallelism;
+    }
+
     private final OfflineStore<T> mOfflineStore;
     private final DataStore<T> mFallbackStore;
 
+    private volatile int mParallelism;
+
     public RequestCacheExecutor(final OfflineStore<T> offlineStore, final DataStore<T> fallbackStore) {
+        this(offlineStore, fallbackStore, sDefaultParallelism);
+    }
+
+    public RequestCacheExecutor(final OfflineStore<T> offlineStore, final DataStore<T> fallbackStore, final int parallelism) {
         mOfflineStore = offlineStore;
         mFallbackStore = fallbackStore;
+        mParallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism() {
+        return mParallelism;
+    }
+
+    public void setParallelism(final int parallelism) {
+        mParallelism = Math.max(1, parallelism);
     }
 
     public void execute(final PendingRequest.List<T> requests) {
+        final List<List<PendingRequest<T>>> lanes = partition(requests);
+        final int threads = Math.min(mParallelism, lanes.size());
+
+        if (threads <= 1) {
+            for (final PendingRequest<T> request : requests) {
+                execute(request);
+            }
+        } else {
+            executeLanes(lanes, threads);
+        }
+
+        Logger.d("Executed %s pending requests in %s lanes.", requests.size(), lanes.size());
+    }
+
+    protected List<List<PendingRequest<T>>> partition(final List<PendingRequest<T>> requests) {
+        final Map<String, List<PendingRequest<T>>> lanes = new LinkedHashMap<String, List<PendingRequest<T>>>();
+
         for (final PendingRequest<T> request : requests) {
-            execute(request);
+            final String identifier = getIdentifier(request);
+
+            List<PendingRequest<T>> lane = lanes.get(identifier);
+            if (lane == null) {
+                lane = new ArrayList<PendingRequest<T>>();
+                lanes.put(identifier, lane);
+            }
+
+            lane.add(request);
+        }
+
+        return new ArrayList<List<PendingRequest<T>>>(lanes.values());
+    }
+
+    private static String getIdentifier(final PendingRequest<?> request) {
+        if (request.object instanceof Identifiable) {
+            return ((Identifiable) request.object).getIdentifier();
+        } else {
+            return null;
+        }
+    }
+
+    private void executeLanes(final List<List<PendingRequest<T>>> lanes, final int threads) {
+        final Executor executor = getExecutor(threads);
+        final Queue<List<PendingRequest<T>>> queue = new ConcurrentLinkedQueue<List<PendingRequest<T>>>(lanes);
+        final CountDownLatch latch = new CountDownLatch(threads);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        List<PendingRequest<T>> lane;
+                        while ((lane = queue.poll()) != null) {
+                            for (final PendingRequest<T> request : lane) {
+                                execute(request);
+                            }
+                        }
+                    } catch (final RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.clear();
         }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    protected Executor getExecutor(final int threads) {
+        return DataExecutors.getSyncExecutor(threads);
     }
 
     private void execute(final PendingRequest<T> request) {
@@ -3,27 +3,40 @@
  */
 package io.pivotal.android.data;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 
 public class RequestCacheQueue<T> {
 
     private static final String REQUEST_KEY = "PCFData:Requests";
 
-    private final Object LOCK = new Object();
+    private static final int MIN_COMPACTION_APPENDS = 64;
+
+    private static final Object LOCK = new Object();
 
     private final DataPersistence mPersistence;
+    private final RequestJournal<T> mJournal;
+    private final RequestCacheCoalescer<T> mCoalescer;
+
+    private boolean mMigrated;
 
-    public RequestCacheQueue(final DataPersistence persistence) {
+    public RequestCacheQueue(final DataPersistence persistence, final RequestJournal<T> journal) {
+        this(persistence, journal, new RequestCacheCoalescer<T>());
+    }
+
+    public RequestCacheQueue(final DataPersistence persistence, final RequestJournal<T> journal, final RequestCacheCoalescer<T> coalescer) {
         mPersistence = persistence;
+        mJournal = journal;
+        mCoalescer = coalescer;
     }
 
     public void add(final PendingRequest<T> request) {
-        final PendingRequest.List<T> requests;
-
         synchronized (LOCK) {
-            requests = getRequests();
-            requests.add(request);
-            putRequests(requests);
+            migrateLegacyRequests();
+            appendRequest(request);
+
+            if (shouldCompact()) {
+                compact();
+            }
         }
     }
 
@@ -31,6 +44,7 @@ public class RequestCacheQueue<T> {
         final PendingRequest.List<T> requests;
 
         synchronized (LOCK) {
+            migrateLegacyRequests();
             requests = getRequests();
             deleteRequests();
         }
@@ -38,29 +52,74 @@ public class RequestCacheQueue<T> {
         return requests;
     }
 
-    @SuppressWarnings("unchecked")
+    protected boolean shouldCompact() {
+        final int appended = mJournal.getAppendCount();
+        return appended >= MIN_COMPACTION_APPENDS && appended >= mJournal.getWrittenCount();
+    }
+
+    public void compact() {
+        synchronized (LOCK) {
+            putRequests(mCoalescer.coalesce(getRequests()));
+        }
+    }
+
+    protected void appendRequest(final PendingRequest<T> request) {
+        try {
+            mJournal.append(request);
+        } catch (final IOException e) {
+            Logger.ex("Could not append pending request", e);
+        }
+    }
+
     protected PendingRequest.List<T> getRequests() {
         try {
-            final ObjectMapper mapper = new ObjectMapper();
-            mapper.registerSubtypes(KeyValue.class);
-            final String serialized = mPersistence.getString(REQUEST_KEY);
-            return mapper.readValue(serialized, PendingRequest.List.class);
-        } catch (final Exception e) {
+            return mJournal.read();
+        } catch (final IOException e) {
+            Logger.ex("Could not read pending requests", e);
             return new PendingRequest.List<T>();
         }
     }
 
     protected void putRequests(final PendingRequest.List<T> requests) {
         try {
-            final ObjectMapper mapper = new ObjectMapper();
-            final String data = mapper.writeValueAsString(requests);
-            mPersistence.putString(REQUEST_KEY, data);
-        } catch (final Exception e) {
-            // do nothing
+            mJournal.write(requests);
+        } catch (final IOException e) {
+            Logger.ex("Could not write pending requests", e);
         }
     }
 
     protected void deleteRequests() {
-        mPersistence.deleteString(REQUEST_KEY);
+        mJournal.delete();
+    }
+
+    protected void migrateLegacyRequests() {
+        if (mMigrated) {
+            return;
+        }
+
+        final PendingRequest.List<T> requests = getLegacyRequests();
+
+        if (!requests.isEmpty()) {
+            try {
+                mJournal.appendAll(requests);
+            } catch (final IOException e) {
+                Logger.ex("Could not migrate legacy pending requests", e);
+                return;
+            }
+
+            mPersistence.deleteString(REQUEST_KEY);
+        }
+
+        mMigrated = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected PendingRequest.List<T> getLegacyRequests() {
+        try {
+            final String serialized = mPersistence.getString(REQUEST_KEY);
+            return DataMapper.getInstance().getRequestListReader().readValue(serialized);
+        } catch (final Exception e) {
+            return new PendingRequest.List<T>();
+        }
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import org.apache.http.client.methods.AbortableHttpRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class RequestFuture<T> extends FutureTask<Response<T>> {
+
+    public interface Continuation<T, R> {
+        R then(Response<T> response) throws Exception;
+    }
+
+    private static final ThreadLocal<RequestFuture<?>> sCurrent = new ThreadLocal<RequestFuture<?>>();
+
+    static RequestFuture<?> current() {
+        return sCurrent.get();
+    }
+
+    private final Request<T> mRequest;
+    private final List<Runnable> mContinuations = new ArrayList<Runnable>();
+
+    private AbortableHttpRequest mAbortable;
+    private boolean mDone;
+
+    public RequestFuture(final DataStore<T> store, final Request<T> request) {
+        super(new Callable<Response<T>>() {
+
+            @Override
+            public Response<T> call() throws Exception {
+                return store.execute(request);
+            }
+        });
+        mRequest = request;
+    }
+
+    public Request<T> getRequest() {
+        return mRequest;
+    }
+
+    @Override
+    public void run() {
+        if (isCancelled()) {
+            Logger.v("Dropping cancelled request: %s", mRequest.object);
+            return;
+        }
+
+        final RequestFuture<?> previous = sCurrent.get();
+        sCurrent.set(this);
+
+        try {
+            super.run();
+        } finally {
+            if (previous != null) {
+                sCurrent.set(previous);
+            } else {
+                sCurrent.remove();
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+        if (cancelled) {
+            abort();
+        }
+
+        return cancelled;
+    }
+
+    @Override
+    public Response<T> get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return super.get(timeout, unit);
+        } catch (final TimeoutException e) {
+            cancel(true);
+            throw e;
+        }
+    }
+
+    void setAbortable(final AbortableHttpRequest request) {
+        synchronized (this) {
+            mAbortable = request;
+        }
+
+        if (isCancelled()) {
+            abort();
+        }
+    }
+
+    private void abort() {
+        final AbortableHttpRequest request;
+
+        synchronized (this) {
+            request = mAbortable;
+            mAbortable = null;
+        }
+
+        if (request != null) {
+            Logger.v("Aborting request: %s", mRequest.object);
+            request.abort();
+        }
+    }
+
+    public <R> FutureTask<R> then(final Continuation<T, R> continuation) {
+        final FutureTask<R> next = new FutureTask<R>(new Callable<R>() {
+
+            @Override
+            public R call() throws Exception {
+                return continuation.then(RequestFuture.this.get());
+            }
+        });
+
+        final Runnable runnable = new Runnable() {
+
+            @Override
+            public void run() {
+                if (isCancelled()) {
+                    next.cancel(false);
+                } else {
+                    next.run();
+                }
+            }
+        };
+
+        synchronized (mContinuations) {
+            if (!mDone) {
+                mContinuations.add(runnable);
+                return next;
+            }
+        }
+
+        runnable.run();
+        return next;
+    }
+
+    @Override
+    protected void done() {
+        final List<Runnable> continuations;
+
+        synchronized (mContinuations) {
+            mDone = true;
+            continuations = new ArrayList<Runnable>(mContinuations);
+            mContinuations.clear();
+        }
+
+        for (final Runnable continuation : continuations) {
+            continuation.run();
+        }
+    }
+}
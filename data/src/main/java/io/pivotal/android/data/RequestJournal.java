@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RequestJournal<T> {
+
+    static final int MAGIC = 0x50434644;
+    static final int VERSION = 2;
+    static final int JSON_VERSION = 1;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final Map<String, RequestJournal<?>> sJournals = new HashMap<String, RequestJournal<?>>();
+
+    @SuppressWarnings("unchecked")
+    public static <T> RequestJournal<T> open(final File file) {
+        synchronized (sJournals) {
+            final String path = file.getAbsolutePath();
+            RequestJournal<T> journal = (RequestJournal<T>) sJournals.get(path);
+            if (journal == null) {
+                journal = new RequestJournal<T>(file);
+                sJournals.put(path, journal);
+            }
+            return journal;
+        }
+    }
+
+    private final File mFile;
+    private final PendingRequestCodec<T> mCodec;
+    private final PendingRequestCodec<T> mJsonCodec;
+
+    private boolean mRecovered;
+    private int mAppendCount;
+    private int mWrittenCount;
+
+    public RequestJournal(final File file) {
+        this(file, new PendingRequestCodec.Binary<T>());
+    }
+
+    public RequestJournal(final File file, final PendingRequestCodec<T> codec) {
+        mFile = file;
+        mCodec = codec;
+        mJsonCodec = new PendingRequestCodec.Json<T>();
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    public boolean exists() {
+        return mFile.exists() && mFile.length() > 0;
+    }
+
+    public synchronized int getAppendCount() {
+        return mAppendCount;
+    }
+
+    public synchronized int getWrittenCount() {
+        return mWrittenCount;
+    }
+
+    public synchronized void append(final PendingRequest<T> request) throws IOException {
+        appendAll(Collections.singletonList(request));
+    }
+
+    public synchronized void appendAll(final List<PendingRequest<T>> requests) throws IOException {
+        if (!mRecovered) {
+            recover();
+        }
+
+        final boolean hasHeader = exists();
+        final FileOutputStream stream = new FileOutputStream(mFile, true);
+
+        try {
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+
+            if (!hasHeader) {
+                writeHeader(output);
+            }
+
+            for (final PendingRequest<T> request : requests) {
+                writeRecord(output, request);
+            }
+
+            output.flush();
+            stream.getFD().sync();
+        } finally {
+            stream.close();
+        }
+
+        mAppendCount += requests.size();
+    }
+
+    public synchronized PendingRequest.List<T> read() throws IOException {
+        final PendingRequest.List<T> requests = new PendingRequest.List<T>();
+
+        if (!exists()) {
+            return requests;
+        }
+
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+
+        try {
+            final int magic = input.readInt();
+            final int version = input.readInt();
+
+            if (magic != MAGIC || (version != VERSION && version != JSON_VERSION)) {
+                Logger.e("Unsupported request journal version: " + version);
+                return requests;
+            }
+
+            final PendingRequestCodec<T> codec = version == JSON_VERSION ? mJsonCodec : mCodec;
+
+            while (true) {
+                final byte[] record = readRecord(input);
+
+                if (record == null) {
+                    break;
+                }
+
+                try {
+                    requests.add(codec.decode(record));
+                } catch (final IOException e) {
+                    Logger.ex("Skipping unreadable request journal record", e);
+                }
+            }
+        } finally {
+            input.close();
+        }
+
+        return requests;
+    }
+
+    public synchronized void write(final List<PendingRequest<T>> requests) throws IOException {
+        final File temp = new File(mFile.getPath() + TEMP_SUFFIX);
+        final FileOutputStream stream = new FileOutputStream(temp);
+
+        try {
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+
+            writeHeader(output);
+
+            for (final PendingRequest<T> request : requests) {
+                writeRecord(output, request);
+            }
+
+            output.flush();
+            stream.getFD().sync();
+        } finally {
+            stream.close();
+        }
+
+        if (!temp.renameTo(mFile)) {
+            throw new IOException("Could not replace request journal " + mFile);
+        }
+
+        mRecovered = true;
+        mAppendCount = 0;
+        mWrittenCount = requests.size();
+    }
+
+    public synchronized void delete() {
+        if (mFile.exists() && !mFile.delete()) {
+            Logger.e("Could not delete request journal " + mFile);
+        }
+
+        mRecovered = true;
+        mAppendCount = 0;
+        mWrittenCount = 0;
+    }
+
+    private void recover() throws IOException {
+        if (exists()) {
+            write(read());
+        }
+        mRecovered = true;
+    }
+
+    private void writeHeader(final DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    private void writeRecord(final DataOutputStream output, final PendingRequest<T> request) throws IOException {
+        final byte[] record = mCodec.encode(request);
+        output.writeInt(record.length);
+        output.write(record);
+    }
+
+    private byte[] readRecord(final DataInputStream input) throws IOException {
+        try {
+            final int length = input.readInt();
+
+            if (length < 0 || length > mFile.length()) {
+                Logger.e("Truncating corrupt request journal record.");
+                return null;
+            }
+
+            final byte[] record = new byte[length];
+            input.readFully(record);
+            return record;
+
+        } catch (final EOFException e) {
+            return null;
+        }
+    }
+}
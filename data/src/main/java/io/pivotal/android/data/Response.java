@@ -42,4 +42,8 @@ public class Response<T> {
     public boolean isUnauthorized() {
         return this.error != null && this.error.isUnauthorized();
     }
+
+    public boolean isRetryExhausted() {
+        return this.error != null && this.error.isRetryExhausted();
+    }
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+public class RetryExhaustedException extends DataHttpException {
+
+    private final int mAttempts;
+
+    public RetryExhaustedException(final int statusCode, final String message, final int attempts) {
+        super(statusCode, message);
+        mAttempts = attempts;
+    }
+
+    public RetryExhaustedException(final Exception cause, final int attempts) {
+        super(-1, cause.getLocalizedMessage());
+        mAttempts = attempts;
+        initCause(cause);
+    }
+
+    public int getAttempts() {
+        return mAttempts;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RetryPolicy {
+
+    public static final class Defaults {
+        public static final int MAX_ATTEMPTS = 3;
+        public static final long INITIAL_DELAY = 500;
+        public static final long MAX_DELAY = 8000;
+        public static final double JITTER = 0.5;
+    }
+
+    public static final int[] RETRYABLE_STATUSES = { 408, 429, 500, 502, 503, 504 };
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0, false, false);
+
+    private static final RetryPolicy DEFAULT = new RetryPolicy(Defaults.MAX_ATTEMPTS, Defaults.INITIAL_DELAY, Defaults.MAX_DELAY, Defaults.JITTER, true, false);
+
+    private static final RetryPolicy WRITE_DEFAULT = new RetryPolicy(Defaults.MAX_ATTEMPTS, Defaults.INITIAL_DELAY, Defaults.MAX_DELAY, Defaults.JITTER, false, false);
+
+    private static final Map<Integer, RetryPolicy> sPolicies = new ConcurrentHashMap<Integer, RetryPolicy>();
+
+    private static final Random sRandom = new Random();
+
+    public static void setPolicy(final int method, final RetryPolicy policy) {
+        if (policy != null) {
+            sPolicies.put(method, policy);
+        } else {
+            sPolicies.remove(method);
+        }
+    }
+
+    public static RetryPolicy getPolicy(final int method) {
+        final RetryPolicy policy = sPolicies.get(method);
+        if (policy != null) {
+            return policy;
+        }
+        return method == Request.Methods.GET ? DEFAULT : WRITE_DEFAULT;
+    }
+
+    private final int mMaxAttempts;
+    private final long mInitialDelay;
+    private final long mMaxDelay;
+    private final double mJitter;
+    private final boolean mIdempotent;
+    private final boolean mQueueOnExhaustion;
+    private final int[] mRetryableStatuses;
+
+    public RetryPolicy(final int maxAttempts, final long initialDelay, final long maxDelay, final double jitter, final boolean idempotent, final boolean queueOnExhaustion) {
+        this(maxAttempts, initialDelay, maxDelay, jitter, idempotent, queueOnExhaustion, RETRYABLE_STATUSES);
+    }
+
+    public RetryPolicy(final int maxAttempts, final long initialDelay, final long maxDelay, final double jitter, final boolean idempotent, final boolean queueOnExhaustion, final int[] retryableStatuses) {
+        mMaxAttempts = Math.max(1, maxAttempts);
+        mInitialDelay = Math.max(0, initialDelay);
+        mMaxDelay = Math.max(mInitialDelay, maxDelay);
+        mJitter = Math.min(1, Math.max(0, jitter));
+        mIdempotent = idempotent;
+        mQueueOnExhaustion = queueOnExhaustion;
+        mRetryableStatuses = retryableStatuses.clone();
+    }
+
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    public boolean isIdempotent() {
+        return mIdempotent;
+    }
+
+    public boolean shouldQueueOnExhaustion() {
+        return mQueueOnExhaustion;
+    }
+
+    public boolean isRetryableStatus(final int statusCode) {
+        for (final int status : mRetryableStatuses) {
+            if (status == statusCode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasAttemptsLeft(final int attempt) {
+        return attempt < mMaxAttempts;
+    }
+
+    public boolean isRetryable(final int statusCode) {
+        return mIdempotent && isRetryableStatus(statusCode);
+    }
+
+    public boolean isRetryable(final Exception e) {
+        if (e instanceof ConnectException || e instanceof ConnectTimeoutException || e instanceof UnknownHostException) {
+            return true;
+        }
+
+        return mIdempotent && (e instanceof SocketTimeoutException || e instanceof SocketException || e instanceof NoHttpResponseException);
+    }
+
+    public long getDelay(final int attempt) {
+        final int shift = Math.min(attempt - 1, 30);
+        final long backoff = Math.min(mMaxDelay, mInitialDelay << shift);
+        final long fixed = (long) (backoff * (1 - mJitter));
+        final long jitter = backoff - fixed;
+
+        return jitter > 0 ? fixed + (long) (sRandom.nextDouble() * jitter) : fixed;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RetryStats {
+
+    private static final class Holder {
+        public static final RetryStats INSTANCE = new RetryStats();
+    }
+
+    public static RetryStats getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final AtomicLong mAttempts = new AtomicLong();
+    private final AtomicLong mRetries = new AtomicLong();
+    private final AtomicLong mRecovered = new AtomicLong();
+    private final AtomicLong mExhausted = new AtomicLong();
+    private final AtomicLong mBackoffMillis = new AtomicLong();
+
+    public void recordAttempt() {
+        mAttempts.incrementAndGet();
+    }
+
+    public void recordRetry(final long delay) {
+        mRetries.incrementAndGet();
+        mBackoffMillis.addAndGet(delay);
+    }
+
+    public void recordRecovered() {
+        mRecovered.incrementAndGet();
+    }
+
+    public void recordExhausted() {
+        mExhausted.incrementAndGet();
+    }
+
+    public long getAttempts() {
+        return mAttempts.get();
+    }
+
+    public long getRetries() {
+        return mRetries.get();
+    }
+
+    public long getRecovered() {
+        return mRecovered.get();
+    }
+
+    public long getExhausted() {
+        return mExhausted.get();
+    }
+
+    public long getBackoffMillis() {
+        return mBackoffMillis.get();
+    }
+
+    public void reset() {
+        mAttempts.set(0);
+        mRetries.set(0);
+        mRecovered.set(0);
+        mExhausted.set(0);
+        mBackoffMillis.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryStats[attempts=" + getAttempts() + ", retries=" + getRetries() + ", recovered=" + getRecovered() + ", exhausted=" + getExhausted() + ", backoff=" + getBackoffMillis() + "]";
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SingleFlight<V> {
+
+    public interface Call<V> {
+        V call() throws Exception;
+    }
+
+    private static final class Flight<V> {
+        private final CountDownLatch mLatch = new CountDownLatch(1);
+        private boolean mCompleted;
+        private boolean mCancelled;
+        private V mValue;
+        private Exception mError;
+    }
+
+    private final ConcurrentHashMap<String, Flight<V>> mFlights = new ConcurrentHashMap<String, Flight<V>>();
+
+    private final AtomicLong mExecuted = new AtomicLong();
+    private final AtomicLong mShared = new AtomicLong();
+
+    public V execute(final String key, final Call<V> call) throws Exception {
+        final Flight<V> flight = new Flight<V>();
+        final Flight<V> existing = mFlights.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            return await(key, existing, call);
+        }
+
+        mExecuted.incrementAndGet();
+
+        try {
+            flight.mValue = call.call();
+            flight.mCompleted = true;
+            return flight.mValue;
+
+        } catch (final Exception e) {
+            flight.mError = e;
+            flight.mCancelled = isCancelled();
+            flight.mCompleted = true;
+            throw e;
+
+        } finally {
+            mFlights.remove(key, flight);
+            flight.mLatch.countDown();
+        }
+    }
+
+    private V await(final String key, final Flight<V> flight, final Call<V> call) throws Exception {
+        mShared.incrementAndGet();
+
+        Logger.v("Joining in-flight call: %s", key);
+
+        flight.mLatch.await();
+
+        if (!flight.mCompleted) {
+            throw new IllegalStateException("In-flight call did not complete: " + key);
+        }
+
+        if (flight.mCancelled) {
+            Logger.v("In-flight call was cancelled, retrying: %s", key);
+            return execute(key, call);
+        }
+
+        if (flight.mError != null) {
+            throw flight.mError;
+        }
+
+        return flight.mValue;
+    }
+
+    private static boolean isCancelled() {
+        final RequestFuture<?> future = RequestFuture.current();
+        return future != null && future.isCancelled();
+    }
+
+    public int getInFlightCount() {
+        return mFlights.size();
+    }
+
+    public long getExecutedCount() {
+        return mExecuted.get();
+    }
+
+    public long getSharedCount() {
+        return mShared.get();
+    }
+}
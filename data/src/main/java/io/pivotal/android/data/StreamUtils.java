@@ -3,29 +3,67 @@
  */
 package io.pivotal.android.data;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
 /* package */ class StreamUtils {
 
+    public static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int DEFAULT_CAPACITY = 4 * 1024;
+    private static final int MAX_INITIAL_CAPACITY = 1024 * 1024;
+
     public static String consumeAndClose(final InputStream inputStream) throws IOException {
+        return consumeAndClose(inputStream, -1);
+    }
+
+    public static String consumeAndClose(final InputStream inputStream, final long length) throws IOException {
+        return new String(consumeBytesAndClose(inputStream, length), UTF_8);
+    }
+
+    public static byte[] consumeBytesAndClose(final InputStream inputStream, final long length) throws IOException {
         try {
-            final InputStreamReader streamReader = new InputStreamReader(inputStream);
-            final BufferedReader bufferedReader = new BufferedReader(streamReader);
-            final StringBuilder stringBuilder = new StringBuilder();
-            return getString(bufferedReader, stringBuilder);
+            return readBytes(inputStream, length);
         } finally {
             inputStream.close();
         }
     }
 
-    private static String getString(final BufferedReader reader, final StringBuilder builder) throws IOException {
-        String line;
-        while ((line = reader.readLine()) != null) {
-            builder.append(line);
+    public static byte[] readBytes(final InputStream inputStream, final long length) throws IOException {
+        byte[] buffer = new byte[getInitialCapacity(length)];
+        int count = 0;
+
+        while (true) {
+            if (count == buffer.length) {
+                final int next = inputStream.read();
+
+                if (next < 0) {
+                    break;
+                }
+
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, DEFAULT_CAPACITY));
+                buffer[count++] = (byte) next;
+            }
+
+            final int read = inputStream.read(buffer, count, buffer.length - count);
+
+            if (read <= 0) {
+                break;
+            }
+
+            count += read;
+        }
+
+        return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    }
+
+    private static int getInitialCapacity(final long length) {
+        if (length < 0) {
+            return DEFAULT_CAPACITY;
+        } else {
+            return (int) Math.min(length, MAX_INITIAL_CAPACITY);
         }
-        return builder.toString();
     }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.content.Context;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TokenCache {
+
+    public static final class Timeouts {
+        public static final long REFRESH_AHEAD = 60 * 1000;
+    }
+
+    private static class Holder {
+        public static final TokenCache INSTANCE = new TokenCache();
+    }
+
+    public static TokenCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final Object mLock = new Object();
+    private final AtomicBoolean mRefreshing = new AtomicBoolean();
+
+    private volatile Token mToken;
+    private volatile long mRefreshAhead = Timeouts.REFRESH_AHEAD;
+
+    public void setRefreshAhead(final long millis) {
+        mRefreshAhead = millis;
+    }
+
+    public String getToken(final Context context) {
+        final TokenProvider provider = TokenProviderFactory.obtainTokenProvider();
+
+        if (provider == null) {
+            return null;
+        }
+
+        if (!(provider instanceof ExpiringTokenProvider)) {
+            return provider.provideAccessToken(context);
+        }
+
+        final Token token = mToken;
+        final long now = System.currentTimeMillis();
+
+        if (isValid(token, provider, now)) {
+            if (now >= token.expiration - mRefreshAhead) {
+                refreshInBackground(context, token);
+            }
+            return token.value;
+        }
+
+        synchronized (mLock) {
+            final Token current = mToken;
+
+            if (isValid(current, provider, System.currentTimeMillis())) {
+                return current.value;
+            }
+
+            return fetch(context, provider);
+        }
+    }
+
+    public String refresh(final Context context, final String staleToken) {
+        final TokenProvider provider = TokenProviderFactory.obtainTokenProvider();
+
+        if (provider == null) {
+            return null;
+        }
+
+        synchronized (mLock) {
+            final String current = getCurrent(context, provider);
+
+            if (current != null && staleToken != null && !current.equals(staleToken)) {
+                Logger.v("Access token already refreshed.");
+                return current;
+            }
+
+            Logger.v("Invalidating access token.");
+            provider.invalidateAccessToken(context);
+            return fetch(context, provider);
+        }
+    }
+
+    public void clear() {
+        synchronized (mLock) {
+            mToken = null;
+        }
+    }
+
+    private String getCurrent(final Context context, final TokenProvider provider) {
+        if (provider instanceof ExpiringTokenProvider) {
+            final Token token = mToken;
+            return token != null && token.provider == provider ? token.value : null;
+        } else {
+            return provider.provideAccessToken(context);
+        }
+    }
+
+    private void refreshInBackground(final Context context, final Token token) {
+        if (!mRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        DataExecutors.getNetworkExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    Logger.v("Refreshing access token ahead of expiry.");
+                    refreshAhead(context, token);
+                } finally {
+                    mRefreshing.set(false);
+                }
+            }
+        });
+    }
+
+    private void refreshAhead(final Context context, final Token token) {
+        final String value = token.provider.provideAccessToken(context);
+
+        if (value == null) {
+            return;
+        }
+
+        final Token refreshed = createToken(context, token.provider, value);
+
+        if (refreshed == null) {
+            return;
+        }
+
+        synchronized (mLock) {
+            if (mToken == token) {
+                mToken = refreshed;
+            }
+        }
+    }
+
+    private String fetch(final Context context, final TokenProvider provider) {
+        final String value = provider.provideAccessToken(context);
+
+        mToken = value != null ? createToken(context, provider, value) : null;
+
+        return value;
+    }
+
+    private static Token createToken(final Context context, final TokenProvider provider, final String value) {
+        if (provider instanceof ExpiringTokenProvider) {
+            final long expiration = ((ExpiringTokenProvider) provider).getAccessTokenExpiration(context);
+            if (expiration > 0) {
+                return new Token(provider, value, expiration);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isValid(final Token token, final TokenProvider provider, final long now) {
+        return token != null && token.provider == provider && now < token.expiration;
+    }
+
+    private static final class Token {
+
+        private final TokenProvider provider;
+        private final String value;
+        private final long expiration;
+
+        private Token(final TokenProvider provider, final String value, final long expiration) {
+            this.provider = provider;
+            this.value = value;
+            this.expiration = expiration;
+        }
+    }
+}
@@ -9,6 +9,7 @@ package io.pivotal.android.data;
 
     public static void registerTokenProvider(final TokenProvider provider) {
         sProvider = provider;
+        TokenCache.getInstance().clear();
     }
 
     public static TokenProvider obtainTokenProvider() {
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ValueCache {
+
+    public static final int DEFAULT_MAX_SIZE = 512 * 1024;
+
+    private static final int ENTRY_OVERHEAD = 32;
+
+    private static final class Holder {
+        public static final ValueCache INSTANCE = new ValueCache(DEFAULT_MAX_SIZE);
+    }
+
+    public static ValueCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final LinkedHashMap<String, String> mEntries = new LinkedHashMap<String, String>(16, 0.75f, true);
+
+    private int mMaxSize;
+    private int mSize;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    public ValueCache(final int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    public synchronized String get(final String key) {
+        final String value = mEntries.get(key);
+
+        if (value != null) {
+            mHitCount += 1;
+        } else {
+            mMissCount += 1;
+        }
+
+        return value;
+    }
+
+    public synchronized void put(final String key, final String value) {
+        final String entry = value != null ? value : "";
+        final int entrySize = sizeOf(key, entry);
+
+        final String previous = mEntries.remove(key);
+        if (previous != null) {
+            mSize -= sizeOf(key, previous);
+        }
+
+        if (entrySize <= mMaxSize) {
+            mEntries.put(key, entry);
+            mSize += entrySize;
+            trimToSize(mMaxSize);
+        }
+    }
+
+    public synchronized void putIfAbsent(final String key, final String value) {
+        if (!mEntries.containsKey(key)) {
+            put(key, value);
+        }
+    }
+
+    public synchronized void remove(final String key) {
+        final String previous = mEntries.remove(key);
+        if (previous != null) {
+            mSize -= sizeOf(key, previous);
+        }
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+        mSize = 0;
+    }
+
+    public synchronized void setMaxSize(final int maxSize) {
+        mMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    public synchronized int getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized int getSize() {
+        return mSize;
+    }
+
+    public synchronized int getCount() {
+        return mEntries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    private void trimToSize(final int maxSize) {
+        final Iterator<Map.Entry<String, String>> iterator = mEntries.entrySet().iterator();
+
+        while (mSize > maxSize && iterator.hasNext()) {
+            final Map.Entry<String, String> eldest = iterator.next();
+            mSize -= sizeOf(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            mEvictionCount += 1;
+        }
+    }
+
+    protected int sizeOf(final String key, final String value) {
+        return ENTRY_OVERHEAD + 2 * (key.length() + value.length());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ValueCache[size=" + mSize + ", maxSize=" + mMaxSize + ", hits=" + mHitCount
+            + ", misses=" + mMissCount + ", evictions=" + mEvictionCount + "]";
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2014 Pivotal Software, Inc. All rights reserved.
+ */
+package io.pivotal.android.data;
+
+import android.annotation.SuppressLint;
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* package */ class WriteBatch {
+
+    public static final int MAX_SIZE = 64;
+    public static final int MAX_DELAY = 1000;
+
+    private static final Object REMOVED = new Object();
+
+    private static final Map<String, WriteBatch> sBatches = new HashMap<String, WriteBatch>();
+
+    public static WriteBatch obtain(final String name, final SharedPreferences preferences) {
+        synchronized (sBatches) {
+            WriteBatch batch = sBatches.get(name);
+            if (batch == null || batch.mPreferences != preferences) {
+                batch = new WriteBatch(preferences);
+                sBatches.put(name, batch);
+            }
+            return batch;
+        }
+    }
+
+    public static void flushAll() {
+        final List<WriteBatch> batches;
+        synchronized (sBatches) {
+            batches = new ArrayList<WriteBatch>(sBatches.values());
+        }
+        for (final WriteBatch batch : batches) {
+            batch.flush();
+        }
+    }
+
+    private final Object mFlushLock = new Object();
+    private final ConcurrentHashMap<String, Object> mDirty = new ConcurrentHashMap<String, Object>();
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private final SharedPreferences mPreferences;
+
+    private WriteBatch(final SharedPreferences preferences) {
+        mPreferences = preferences;
+    }
+
+    public String get(final String key, final String defaultValue) {
+        final Object value = mDirty.get(key);
+
+        if (value == null) {
+            return mPreferences.getString(key, defaultValue);
+        } else if (value == REMOVED) {
+            return defaultValue;
+        } else {
+            return (String) value;
+        }
+    }
+
+    public Map<String, String> getAll() {
+        final Map<String, String> values = new HashMap<String, String>();
+        final Map<String, ?> stored = mPreferences.getAll();
+
+        if (stored != null) {
+            for (final Map.Entry<String, ?> entry : stored.entrySet()) {
+                if (entry.getValue() instanceof String) {
+                    values.put(entry.getKey(), (String) entry.getValue());
+                }
+            }
+        }
+
+        for (final Map.Entry<String, Object> entry : mDirty.entrySet()) {
+            if (entry.getValue() == REMOVED) {
+                values.remove(entry.getKey());
+            } else {
+                values.put(entry.getKey(), (String) entry.getValue());
+            }
+        }
+
+        return values;
+    }
+
+    public void put(final String key, final String value) {
+        mDirty.put(key, value != null ? value : REMOVED);
+    }
+
+    public void remove(final String key) {
+        mDirty.put(key, REMOVED);
+    }
+
+    public int size() {
+        return mDirty.size();
+    }
+
+    public void flushWhenDue() {
+        if (mDirty.size() >= MAX_SIZE) {
+            flush();
+
+        } else if (mScheduled.compareAndSet(false, true)) {
+            DataExecutors.getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, MAX_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @SuppressLint("CommitPrefEdits")
+    public void flush() {
+        synchronized (mFlushLock) {
+            mScheduled.set(false);
+
+            if (mDirty.isEmpty()) {
+                return;
+            }
+
+            final Map<String, Object> snapshot = new HashMap<String, Object>(mDirty);
+            final SharedPreferences.Editor editor = mPreferences.edit();
+
+            for (final Map.Entry<String, Object> entry : snapshot.entrySet()) {
+                if (entry.getValue() == REMOVED) {
+                    editor.remove(entry.getKey());
+                } else {
+                    editor.putString(entry.getKey(), (String) entry.getValue());
+                }
+            }
+
+            if (!editor.commit()) {
+                Logger.e("Could not commit " + snapshot.size() + " batched writes.");
+            }
+
+            for (final Map.Entry<String, Object> entry : snapshot.entrySet()) {
+                mDirty.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @SuppressLint("CommitPrefEdits")
+    public void clear() {
+        synchronized (mFlushLock) {
+            mDirty.clear();
+            mPreferences.edit().clear().commit();
+        }
+    }
+}